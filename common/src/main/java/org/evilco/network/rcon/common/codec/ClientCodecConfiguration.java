@@ -22,7 +22,7 @@ import lombok.RequiredArgsConstructor;
 import org.evilco.network.rcon.common.packet.*;
 import org.evilco.network.rcon.common.packet.annotation.Packet;
 import org.evilco.network.rcon.common.packet.registry.IWritablePacketRegistry;
-import org.evilco.network.rcon.common.packet.registry.SimplePacketRegistry;
+import org.evilco.network.rcon.common.packet.registry.IndexedPacketRegistry;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
@@ -54,7 +54,7 @@ public class ClientCodecConfiguration implements IWritableCodecConfiguration {
 	 * Constructs a new ClientCodecConfiguration instance.
 	 */
 	public ClientCodecConfiguration () {
-		this ((new SimplePacketRegistry ()), (new SimplePacketRegistry ()));
+		this ((new IndexedPacketRegistry ()), (new IndexedPacketRegistry ()));
 	}
 
 	/**
@@ -16,13 +16,13 @@
 package org.evilco.network.rcon.common.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.handler.codec.ByteToMessageDecoder;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.error.OversizedFrameException;
 
 import java.nio.ByteOrder;
 import java.util.List;
@@ -31,8 +31,7 @@ import java.util.List;
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@ChannelHandler.Sharable
-public class FrameCodec extends ByteToMessageCodec<ByteBuf> {
+public class FrameCodec extends ByteToMessageDecoder {
 
 	/**
 	 * Stores an internal logger instance.
@@ -41,34 +40,79 @@ public class FrameCodec extends ByteToMessageCodec<ByteBuf> {
 	private static final Logger logger = LogManager.getLogger (FrameCodec.class);
 
 	/**
-	 * Stores the internal singleton instance.
+	 * Defines the default maximum frame size (the request size limit of the protocol).
 	 */
-	private static FrameCodec INSTANCE = null;
+	public static final int DEFAULT_MAXIMUM_FRAME_SIZE = 4096;
 
 	/**
-	 * Internal Constructor
+	 * Indicates whether frames are passed downstream as retained slices of the cumulation buffer instead of copies.
 	 */
-	protected FrameCodec () { }
+	@Getter
+	private final boolean zeroCopy;
 
 	/**
-	 * {@inheritDoc}
+	 * Stores the frame reader.
 	 */
-	@Override
-	protected void encode (ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, ByteBuf byteBuf2) throws Exception {
-		// set order
-		byteBuf2 = byteBuf2.order (ByteOrder.LITTLE_ENDIAN);
+	private final FrameReader reader;
+
+	/**
+	 * Constructs a new FrameCodec instance which copies each frame into a freshly allocated buffer.
+	 */
+	public FrameCodec () {
+		this (false);
+	}
+
+	/**
+	 * Constructs a new FrameCodec instance.
+	 * @param zeroCopy True if frames should be passed downstream as retained slices.
+	 */
+	public FrameCodec (boolean zeroCopy) {
+		this (zeroCopy, DEFAULT_MAXIMUM_FRAME_SIZE);
+	}
 
-		// log
-		getLogger ().debug ("Encoding frame for " + byteBuf.readableBytes () + " bytes of data.");
+	/**
+	 * Constructs a new FrameCodec instance.
+	 * @param zeroCopy True if frames should be passed downstream as retained slices.
+	 * @param maximumFrameSize The maximum frame size.
+	 */
+	public FrameCodec (boolean zeroCopy, int maximumFrameSize) {
+		this.zeroCopy = zeroCopy;
+		this.reader = new FrameReader (maximumFrameSize);
+	}
+
+	/**
+	 * Returns the maximum frame size.
+	 * @return The size in bytes.
+	 */
+	public int getMaximumFrameSize () {
+		return this.reader.getMaximumFrameSize ();
+	}
+
+	/**
+	 * Returns a new instance of FrameCodec.
+	 * FrameCodec keeps a cumulation buffer per channel and may thus no longer be shared between pipelines.
+	 * @return The instance.
+	 * @deprecated Use {@link #FrameCodec()} (or one of its overloads) for every channel instead.
+	 */
+	@Deprecated
+	public static FrameCodec getInstance () {
+		return new FrameCodec ();
+	}
 
-		// ensure output buffer is writable
-		byteBuf2.ensureWritable ((4 + byteBuf.readableBytes ()));
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelReadComplete (ChannelHandlerContext ctx) throws Exception {
+		// keep retained slices intact (discarding read bytes would move data beneath packets which are still alive)
+		ByteBuf cumulation = this.internalBuffer ();
 
-		// write packet length
-		byteBuf2.writeInt (byteBuf.readableBytes ());
+		if (cumulation.refCnt () > 1) {
+			ctx.fireChannelReadComplete ();
+			return;
+		}
 
-		// write packet
-		byteBuf2.writeBytes (byteBuf);
+		super.channelReadComplete (ctx);
 	}
 
 	/**
@@ -80,39 +124,51 @@ public class FrameCodec extends ByteToMessageCodec<ByteBuf> {
 		byteBuf = byteBuf.order (ByteOrder.LITTLE_ENDIAN);
 
 		// read all available packets
-		while (byteBuf.readableBytes () >= 4) {
+		while (byteBuf.isReadable ()) {
 			// log
 			getLogger ().trace ("Decoding frame with maximal size of " + byteBuf.readableBytes () + " bytes.");
 
-			// mark reader index
-			byteBuf.markReaderIndex ();
-
 			// read length
-			int length = byteBuf.readInt ();
+			int length;
 
-			// log
-			getLogger ().trace ("Detected frame length of " + length + " bytes.");
+			try {
+				length = this.reader.read (byteBuf);
+			} catch (OversizedFrameException ex) {
+				// disconnect
+				channelHandlerContext.close ();
+
+				// notify pipeline
+				throw ex;
+			}
 
 			// check whether enough data is available
-			if (length > byteBuf.readableBytes ()) {
+			if (length == -1) {
 				// log
-				getLogger ().debug ("There are only " + byteBuf.readableBytes () + " out of " + length + " bytes available. Skipping frame until more data is available.");
-
-				// reset buffer
-				byteBuf.resetReaderIndex ();
+				getLogger ().debug ("There are only " + byteBuf.readableBytes () + " bytes available. Skipping frame until more data is available.");
 
 				// exit loop
 				break;
 			}
 
+			// log
+			getLogger ().trace ("Detected frame length of " + length + " bytes.");
+
 			// log
 			getLogger ().trace ("Frame seems to be complete reading data.");
 
-			// construct buffer
-			ByteBuf packetBuffer = channelHandlerContext.alloc ().buffer (length);
+			// slice or copy data
+			ByteBuf packetBuffer;
 
-			// read data
-			byteBuf.readBytes (packetBuffer, length);
+			if (this.zeroCopy) {
+				// retain a slice of the cumulation buffer (released by the next handler)
+				packetBuffer = byteBuf.readSlice (length).retain ();
+			} else {
+				// construct buffer
+				packetBuffer = channelHandlerContext.alloc ().buffer (length);
+
+				// read data
+				byteBuf.readBytes (packetBuffer, length);
+			}
 
 			// add to list
 			objects.add (packetBuffer);
@@ -121,13 +177,4 @@ public class FrameCodec extends ByteToMessageCodec<ByteBuf> {
 			getLogger ().trace ("Frame decoded. " + byteBuf.readableBytes () + " bytes left in buffer.");
 		}
 	}
-
-	/**
-	 * Returns an instance of FrameCodec.
-	 * @return The instance.
-	 */
-	public static FrameCodec getInstance () {
-		if (INSTANCE == null) INSTANCE = new FrameCodec ();
-		return INSTANCE;
-	}
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.codec;
+
+import io.netty.buffer.ByteBuf;
+import lombok.Getter;
+import org.evilco.network.rcon.common.error.OversizedFrameException;
+
+/**
+ * Tracks the frame boundaries of a single connection.
+ * Frames which exceed the configured maximum size are skipped as their bytes arrive instead of being buffered.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+class FrameReader {
+
+	/**
+	 * Stores the maximum frame size.
+	 */
+	@Getter
+	private final int maximumFrameSize;
+
+	/**
+	 * Stores the amount of bytes which still need to be discarded.
+	 */
+	private long bytesToDiscard = 0;
+
+	/**
+	 * Constructs a new FrameReader instance.
+	 * @param maximumFrameSize The maximum frame size.
+	 */
+	public FrameReader (int maximumFrameSize) {
+		this.maximumFrameSize = maximumFrameSize;
+	}
+
+	/**
+	 * Checks whether the reader is currently skipping an oversized frame.
+	 * @return True if discarding.
+	 */
+	public boolean isDiscarding () {
+		return (this.bytesToDiscard > 0);
+	}
+
+	/**
+	 * Reads the next frame length.
+	 * The reader index is positioned at the start of the frame body if a complete frame is available and left untouched otherwise.
+	 * @param buffer The little endian cumulation buffer.
+	 * @return The frame length or -1 if no complete frame is available yet.
+	 * @throws OversizedFrameException Occurs if the frame exceeds the maximum frame size.
+	 */
+	public int read (ByteBuf buffer) throws OversizedFrameException {
+		// skip the remains of an oversized frame
+		if (this.isDiscarding ()) {
+			this.discard (buffer);
+			if (this.isDiscarding ()) return -1;
+		}
+
+		// wait for the length prefix
+		if (buffer.readableBytes () < 4) return -1;
+
+		// peek length
+		int length = buffer.getInt (buffer.readerIndex ());
+
+		// verify length
+		if (length < 0 || length > this.maximumFrameSize) {
+			// skip length
+			buffer.skipBytes (4);
+
+			// start discarding (a negative length cannot be recovered from)
+			this.bytesToDiscard = (length < 0 ? Long.MAX_VALUE : length);
+			this.discard (buffer);
+
+			throw new OversizedFrameException ("Frame length of " + length + " bytes exceeds the limit of " + this.maximumFrameSize + " bytes.");
+		}
+
+		// check whether enough data is available
+		if (length > (buffer.readableBytes () - 4)) return -1;
+
+		// skip length
+		buffer.skipBytes (4);
+		return length;
+	}
+
+	/**
+	 * Discards as many bytes of an oversized frame as are available.
+	 * @param buffer The buffer.
+	 */
+	private void discard (ByteBuf buffer) {
+		int length = ((int) Math.min (this.bytesToDiscard, buffer.readableBytes ()));
+
+		buffer.skipBytes (length);
+		this.bytesToDiscard -= length;
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.error.OversizedFrameException;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
+
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Decodes frames and packets in a single stage.
+ * Frames are cut straight from the cumulation buffer which removes the need for a separate {@link FrameCodec}. Packets
+ * keep retained slices of their frame, thus the cumulation is not compacted while any of them is still alive.
+ * Packets are decoded by a (potentially shared) {@link RconCodec} which is expected to follow this decoder in the
+ * pipeline in order to encode outbound packets.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class FramedRconCodec extends ByteToMessageDecoder {
+
+	/**
+	 * Stores an internal logger instance.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (FramedRconCodec.class);
+
+	/**
+	 * Stores the packet codec.
+	 */
+	@Getter
+	private final RconCodec codec;
+
+	/**
+	 * Stores the frame reader.
+	 */
+	private final FrameReader reader;
+
+	/**
+	 * Constructs a new FramedRconCodec instance.
+	 * @param configuration The codec configuration.
+	 * @param eventBus The event bus.
+	 */
+	public FramedRconCodec (@NonNull ICodecConfiguration configuration, @NonNull IEventDispatcher eventBus) {
+		this (configuration, eventBus, FrameCodec.DEFAULT_MAXIMUM_FRAME_SIZE);
+	}
+
+	/**
+	 * Constructs a new FramedRconCodec instance.
+	 * @param configuration The codec configuration.
+	 * @param eventBus The event bus.
+	 * @param maximumFrameSize The maximum frame size.
+	 */
+	public FramedRconCodec (@NonNull ICodecConfiguration configuration, @NonNull IEventDispatcher eventBus, int maximumFrameSize) {
+		this ((new RconCodec (configuration, eventBus)), maximumFrameSize);
+	}
+
+	/**
+	 * Constructs a new FramedRconCodec instance.
+	 * @param codec The packet codec.
+	 * @param maximumFrameSize The maximum frame size.
+	 */
+	public FramedRconCodec (@NonNull RconCodec codec, int maximumFrameSize) {
+		this.codec = codec;
+		this.reader = new FrameReader (maximumFrameSize);
+	}
+
+	/**
+	 * Returns the maximum frame size.
+	 * @return The size in bytes.
+	 */
+	public int getMaximumFrameSize () {
+		return this.reader.getMaximumFrameSize ();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelReadComplete (ChannelHandlerContext ctx) throws Exception {
+		// keep retained slices intact (discarding read bytes would move data beneath packets which are still alive)
+		ByteBuf cumulation = this.internalBuffer ();
+
+		if (cumulation.refCnt () > 1) {
+			ctx.fireChannelReadComplete ();
+			return;
+		}
+
+		super.channelReadComplete (ctx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void decode (ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> objects) throws Exception {
+		// set order
+		byteBuf = byteBuf.order (ByteOrder.LITTLE_ENDIAN);
+
+		// read all available packets
+		while (byteBuf.isReadable ()) {
+			// read length
+			int length;
+
+			try {
+				length = this.reader.read (byteBuf);
+			} catch (OversizedFrameException ex) {
+				// disconnect
+				channelHandlerContext.close ();
+
+				// notify pipeline
+				throw ex;
+			}
+
+			// check whether enough data is available
+			if (length == -1) {
+				// log
+				getLogger ().trace ("There are only %s bytes available. Skipping frame until more data is available.", byteBuf.readableBytes ());
+
+				// exit loop
+				break;
+			}
+
+			// decode packet straight from the cumulation (packets retain their own slice)
+			this.codec.decodePacket (channelHandlerContext, byteBuf.readSlice (length), objects);
+		}
+	}
+}
@@ -16,28 +16,39 @@
 package org.evilco.network.rcon.common.codec;
 
 import com.google.common.base.Preconditions;
-import com.google.common.eventbus.EventBus;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.util.ReferenceCountUtil;
 import lombok.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
 import org.evilco.network.rcon.common.event.packet.PacketReceiveEvent;
 import org.evilco.network.rcon.common.event.packet.PacketSendEvent;
 import org.evilco.network.rcon.common.event.packet.PacketSentEvent;
+import org.evilco.network.rcon.common.packet.AbstractLazyStringPacket;
 import org.evilco.network.rcon.common.packet.IPacket;
+import org.evilco.network.rcon.common.packet.ISplittablePacket;
 import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.common.packet.ResponsePacket;
 
 import java.nio.ByteOrder;
 import java.util.List;
 
 /**
+ * Encodes and decodes packets.
+ * The codec expects complete frames (as produced by {@link FrameCodec}) and does not keep any per-connection state
+ * which permits a single instance to be shared between all channels.
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
 @AllArgsConstructor
-public class RconCodec extends ByteToMessageCodec<PacketWrapper> {
+@ChannelHandler.Sharable
+public class RconCodec extends MessageToMessageCodec<ByteBuf, PacketWrapper> {
 
 	/**
 	 * Stores an internal logger instance.
@@ -59,50 +70,181 @@ public class RconCodec extends ByteToMessageCodec<PacketWrapper> {
 	@Getter
 	@Setter
 	@NonNull
-	private EventBus eventBus;
+	private IEventDispatcher eventBus;
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	protected void encode (ChannelHandlerContext channelHandlerContext, PacketWrapper packetWrapper, ByteBuf byteBuf) throws Exception {
-		// set order
-		byteBuf = byteBuf.order (ByteOrder.LITTLE_ENDIAN);
+	protected void encode (ChannelHandlerContext channelHandlerContext, PacketWrapper packetWrapper, List<Object> objects) throws Exception {
+		// pass buffer on (cancelled packets result in an empty buffer)
+		objects.add (this.encodePacket (channelHandlerContext, packetWrapper));
+	}
 
-		// fire event
-		PacketSendEvent event = new PacketSendEvent (packetWrapper);
-		this.eventBus.post (event);
+	/**
+	 * Encodes a packet (including all of its chunks).
+	 * The wrapper itself is released by the caller.
+	 * @param channelHandlerContext The channel handler context.
+	 * @param packetWrapper The packet.
+	 * @return The encoded frames.
+	 * @throws Exception Occurs if encoding the packet fails.
+	 */
+	protected ByteBuf encodePacket (ChannelHandlerContext channelHandlerContext, PacketWrapper packetWrapper) throws Exception {
+		// store original (released by the encoder itself)
+		PacketWrapper original = packetWrapper;
+
+		try {
+			// fire event
+			if (this.eventBus.hasListeners (PacketSendEvent.class)) {
+				PacketSendEvent event = PacketSendEvent.newInstance (packetWrapper);
+
+				try {
+					this.eventBus.post (event);
+
+					// cancel
+					if (event.isCancelled ()) return Unpooled.EMPTY_BUFFER;
+					packetWrapper = event.getPacket ();
+				} finally {
+					event.recycle ();
+				}
+			}
+
+			// split oversized packets
+			List<IPacket> chunks = null;
+			if (packetWrapper.getPacket () instanceof ISplittablePacket) chunks = ((ISplittablePacket) packetWrapper.getPacket ()).split (channelHandlerContext.alloc ());
+
+			// encode
+			ByteBuf byteBuf;
+
+			if (chunks == null) {
+				byteBuf = channelHandlerContext.alloc ().ioBuffer ().order (ByteOrder.LITTLE_ENDIAN);
+
+				try {
+					this.encodeFrame (byteBuf, packetWrapper.getIdentifier (), packetWrapper.getPacket ());
+				} catch (Exception ex) {
+					byteBuf.release ();
+					throw ex;
+				}
+			} else {
+				// log
+				getLogger ().debug ("Splitting packet of type " + packetWrapper.getPacket ().getClass ().getName () + " with identifier " + packetWrapper.getIdentifier () + " into " + chunks.size () + " packets.");
+
+				try {
+					byteBuf = this.encodeChunks (channelHandlerContext, packetWrapper.getIdentifier (), chunks);
+				} finally {
+					for (IPacket chunk : chunks) ReferenceCountUtil.release (chunk);
+				}
+			}
+
+			// fire event
+			if (this.eventBus.hasListeners (PacketSentEvent.class)) {
+				PacketSentEvent event = PacketSentEvent.newInstance (packetWrapper);
+
+				try {
+					this.eventBus.post (event);
+				} finally {
+					event.recycle ();
+				}
+			}
+
+			return byteBuf;
+		} finally {
+			// release replacement packets
+			if (packetWrapper != original) packetWrapper.release ();
+		}
+	}
+
+	/**
+	 * Encodes the chunks of a split packet.
+	 * Encoded chunk bodies are passed on as retained views (framing bytes of all chunks share a single buffer) while any
+	 * other chunk is encoded in place.
+	 * @param channelHandlerContext The channel handler context.
+	 * @param identifier The packet identifier.
+	 * @param chunks The chunks.
+	 * @return The encoded frames.
+	 * @throws Exception Occurs if encoding a chunk fails.
+	 */
+	protected ByteBuf encodeChunks (ChannelHandlerContext channelHandlerContext, int identifier, List<IPacket> chunks) throws Exception {
+		CompositeByteBuf composite = channelHandlerContext.alloc ().compositeBuffer (((chunks.size () * 2) + 1));
+		ByteBuf framing = channelHandlerContext.alloc ().ioBuffer ((chunks.size () * 14)).order (ByteOrder.LITTLE_ENDIAN);
+
+		try {
+			// start of the framing bytes which have not been passed on yet
+			int index = 0;
+
+			for (IPacket chunk : chunks) {
+				ByteBuf body = (chunk instanceof AbstractLazyStringPacket ? ((AbstractLazyStringPacket) chunk).getEncodedBody () : null);
+
+				// encode chunks without an encoded body in place
+				if (body == null) {
+					this.encodeFrame (framing, identifier, chunk);
+					continue;
+				}
 
-		// cancel
-		if (event.isCancelled ()) return;
-		packetWrapper = event.getPacket ();
+				// log
+				getLogger ().debug ("Encoding chunk of type " + chunk.getClass ().getName () + " with identifier " + identifier + " (" + body.readableBytes () + " bytes).");
 
+				// write header
+				framing.writeInt ((body.readableBytes () + ResponsePacket.FRAME_OVERHEAD));
+				framing.writeInt (identifier);
+				framing.writeInt (this.configuration.getOutboundRegistry ().findPacketID (chunk));
+
+				// pass header (along with the preceding frames) and body on
+				composite.addComponent (framing.slice (index, (framing.writerIndex () - index)).retain ());
+				composite.addComponent (body.retain ());
+
+				// write terminator
+				index = framing.writerIndex ();
+				framing.writeShort (0x0000);
+			}
+
+			// pass remaining frames on
+			if (framing.writerIndex () > index) composite.addComponent (framing.slice (index, (framing.writerIndex () - index)).retain ());
+
+			// expose all components
+			composite.writerIndex (composite.capacity ());
+		} catch (Exception ex) {
+			composite.release ();
+			throw ex;
+		} finally {
+			framing.release ();
+		}
+
+		return composite;
+	}
+
+	/**
+	 * Encodes a single frame.
+	 * @param byteBuf The output buffer.
+	 * @param identifier The packet identifier.
+	 * @param packet The packet.
+	 * @throws Exception Occurs if encoding the packet fails.
+	 */
+	protected void encodeFrame (ByteBuf byteBuf, int identifier, IPacket packet) throws Exception {
 		// find packetID
-		int packetID = this.configuration.getOutboundRegistry ().findPacketID (packetWrapper.getPacket ());
+		int packetID = this.configuration.getOutboundRegistry ().findPacketID (packet);
 
 		// log
-		getLogger ().debug ("Encoding packet of type " + packetWrapper.getPacket ().getClass ().getName () + " (packetID: " + packetID + ") with identifier " + packetWrapper.getIdentifier () + ".");
+		getLogger ().debug ("Encoding packet of type " + packet.getClass ().getName () + " (packetID: " + packetID + ") with identifier " + identifier + ".");
+
+		// reserve frame length
+		int lengthIndex = byteBuf.writerIndex ();
+		byteBuf.writeInt (0);
 
 		// write identifier
-		byteBuf.writeInt (packetWrapper.getIdentifier ());
+		byteBuf.writeInt (identifier);
 
 		// write packet identifier
 		byteBuf.writeInt (packetID);
 
-		// allocate buffer
-		ByteBuf buffer = channelHandlerContext.alloc ().buffer ();
-
 		// write body
-		packetWrapper.getPacket ().write (buffer);
-
-		// write data
-		byteBuf.writeBytes (buffer);
+		packet.write (byteBuf);
 
 		// write terminator
-		buffer.writeBytes (new byte[] { 0x00, 0x00 });
+		byteBuf.writeShort (0x0000);
 
-		// fire event
-		this.eventBus.post (new PacketSentEvent (packetWrapper));
+		// back-fill frame length
+		byteBuf.setInt (lengthIndex, (byteBuf.writerIndex () - lengthIndex - 4));
 	}
 
 	/**
@@ -110,20 +252,31 @@ public class RconCodec extends ByteToMessageCodec<PacketWrapper> {
 	 */
 	@Override
 	protected void decode (ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> objects) throws Exception {
+		this.decodePacket (channelHandlerContext, byteBuf, objects);
+	}
+
+	/**
+	 * Decodes a single packet from a complete frame (excluding its length prefix).
+	 * @param channelHandlerContext The channel handler context.
+	 * @param byteBuf The frame.
+	 * @param objects The output list.
+	 * @throws Exception Occurs if the packet could not be decoded.
+	 */
+	protected void decodePacket (ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> objects) throws Exception {
 		// set order
 		byteBuf = byteBuf.order (ByteOrder.LITTLE_ENDIAN);
 
+		// verify length
+		Preconditions.checkState ((byteBuf.readableBytes () >= 10), "The packet is too short.");
+
 		// read identifier
 		int identifier = byteBuf.readInt ();
 
 		// read packet identifier
 		int packetID = byteBuf.readInt ();
 
-		// allocate buffer
-		ByteBuf buffer = channelHandlerContext.alloc ().buffer ((byteBuf.readableBytes () - 1));
-
-		// read data
-		byteBuf.readBytes (buffer, (byteBuf.readableBytes () - 2));
+		// slice body
+		ByteBuf buffer = byteBuf.readSlice ((byteBuf.readableBytes () - 2));
 
 		// read null byte
 		Preconditions.checkState ((byteBuf.readByte () == 0x00 && byteBuf.readByte () == 0x00), "The last byte is not null");
@@ -136,16 +289,35 @@ public class RconCodec extends ByteToMessageCodec<PacketWrapper> {
 		getLogger ().debug ("Decoded packet of type " + packet.getClass ().getName () + " (packetID: " + packetID + ", identifier: " + identifier + ").");
 
 		// construct wrapper
-		PacketWrapper wrapper = new PacketWrapper (identifier, packet);
+		PacketWrapper wrapper = PacketWrapper.newInstance (identifier, packet);
+
+		// skip event
+		if (!this.eventBus.hasListeners (PacketReceiveEvent.class)) {
+			objects.add (wrapper);
+			return;
+		}
 
 		// fire event
-		PacketReceiveEvent event = new PacketReceiveEvent (wrapper);
-		this.eventBus.post (event);
+		PacketReceiveEvent event = PacketReceiveEvent.newInstance (wrapper);
+
+		try {
+			this.eventBus.post (event);
+
+			// release replaced packet
+			PacketWrapper replacement = event.getPacket ();
+			if (replacement != wrapper) wrapper.release ();
+
+			// process
+			if (!event.isCancelled ()) {
+				objects.add (replacement);
+				return;
+			}
 
-		// process
-		if (!event.isCancelled ())
-			objects.add (event.getPacket ());
-		else
+			// release dropped packet
 			getLogger ().debug ("Ignoring packet with identifier %s (packetID: %s, type: %s): Event has been cancelled.", identifier, packetID, packet.getClass ());
+			replacement.release ();
+		} finally {
+			event.recycle ();
+		}
 	}
 }
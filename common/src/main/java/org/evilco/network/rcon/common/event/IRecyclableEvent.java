@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.event;
+
+/**
+ * Represents an event which may be taken from a pool (see
+ * {@link org.evilco.network.rcon.common.utility.PoolingUtility}).
+ * Recyclable events are only valid while being posted. Listeners which need to keep a reference to an event have to
+ * {@link #copy()} it (and retain any packet they keep beyond the listener invocation).
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public interface IRecyclableEvent extends IEvent {
+
+	/**
+	 * Creates an unpooled copy of this event.
+	 * @return The copy.
+	 */
+	public IRecyclableEvent copy ();
+
+	/**
+	 * Returns the event to its pool (this is a no-op for unpooled events).
+	 */
+	public void recycle ();
+}
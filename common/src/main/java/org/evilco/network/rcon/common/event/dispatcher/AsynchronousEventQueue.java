@@ -0,0 +1,361 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.event.dispatcher;
+
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.event.IEvent;
+import org.evilco.network.rcon.common.event.IRecyclableEvent;
+import org.evilco.network.rcon.common.event.packet.IPacketEvent;
+import org.evilco.network.rcon.common.packet.PacketWrapper;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Queues events for asynchronous listeners.
+ * Producers enqueue into a lock-free queue which is bounded by a counter and drained by a single delivery thread. The
+ * thread runs until the queue is shut down (events which are offered afterwards are dropped). Shutting down never blocks
+ * the caller: the delivery thread completes the termination future once it exits while the shutdown deadlines are
+ * enforced by tasks scheduled on the {@link GlobalEventExecutor}.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+class AsynchronousEventQueue implements Runnable {
+
+	/**
+	 * Stores the internal logger.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (AsynchronousEventQueue.class);
+
+	/**
+	 * Defines the maximum time the delivery thread is parked without checking the queue.
+	 */
+	private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos (100);
+
+	/**
+	 * Stores the queue capacity.
+	 */
+	@Getter
+	private final int capacity;
+
+	/**
+	 * Stores the overflow policy.
+	 */
+	@Getter
+	private final OverflowPolicy overflowPolicy;
+
+	/**
+	 * Stores the sample rate.
+	 */
+	@Getter
+	private final int sampleRate;
+
+	/**
+	 * Stores the queued deliveries.
+	 */
+	private final Queue<Delivery> queue = new ConcurrentLinkedQueue<Delivery> ();
+
+	/**
+	 * Stores the amount of queued deliveries.
+	 */
+	private final AtomicInteger size = new AtomicInteger ();
+
+	/**
+	 * Stores the amount of events which were considered for sampling.
+	 */
+	private final AtomicLong sampled = new AtomicLong ();
+
+	/**
+	 * Stores the amount of dropped events.
+	 */
+	private final AtomicLong dropped = new AtomicLong ();
+
+	/**
+	 * Stores the delivery thread.
+	 */
+	private final Thread thread;
+
+	/**
+	 * Indicates whether the delivery thread is (about to be) parked.
+	 */
+	private volatile boolean waiting = false;
+
+	/**
+	 * Indicates whether the queue has been shut down.
+	 */
+	private volatile boolean shutdown = false;
+
+	/**
+	 * Indicates whether the delivery thread has stopped delivering events.
+	 */
+	private volatile boolean terminated = false;
+
+	/**
+	 * Stores the termination future (completed with true if all queued events have been delivered).
+	 */
+	private final Promise<Boolean> terminationFuture = GlobalEventExecutor.INSTANCE.newPromise ();
+
+	/**
+	 * Constructs and starts a new AsynchronousEventQueue instance.
+	 * @param capacity The queue capacity.
+	 * @param overflowPolicy The overflow policy.
+	 * @param sampleRate The sample rate.
+	 */
+	public AsynchronousEventQueue (int capacity, @NonNull OverflowPolicy overflowPolicy, int sampleRate) {
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.sampleRate = sampleRate;
+
+		// start delivery thread
+		this.thread = new Thread (this, "rcon-event-delivery");
+		this.thread.setDaemon (true);
+		this.thread.start ();
+	}
+
+	/**
+	 * Returns the amount of dropped events.
+	 * @return The amount of events.
+	 */
+	public long getDroppedEvents () {
+		return this.dropped.get ();
+	}
+
+	/**
+	 * Queues an event.
+	 * @param event The event.
+	 * @param invokers The asynchronous invokers.
+	 * @return True if the event was queued.
+	 */
+	public boolean offer (@NonNull IEvent event, @NonNull EventInvoker[] invokers) {
+		// apply overflow policy
+		if (this.shutdown || !this.reserve ()) {
+			this.dropped.incrementAndGet ();
+			return false;
+		}
+
+		// detach pooled events (which are recycled as soon as the synchronous delivery completes)
+		if (event instanceof IRecyclableEvent) event = ((IRecyclableEvent) event).copy ();
+
+		// retain packet until delivered
+		PacketWrapper packet = null;
+
+		if (event instanceof IPacketEvent) {
+			packet = ((IPacketEvent) event).getPacket ();
+			packet.retain ();
+		}
+
+		// queue
+		this.queue.offer (new Delivery (event, invokers, packet));
+
+		// wake up delivery thread
+		if (this.waiting) LockSupport.unpark (this.thread);
+
+		// discard events which raced with the termination of the delivery thread (which flags its termination before
+		// discarding the queue, thus either side sees the queued event)
+		if (this.terminated) {
+			this.discard ();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Reserves a slot in the queue.
+	 * @return True if a slot was reserved.
+	 */
+	private boolean reserve () {
+		while (!this.shutdown) {
+			int size = this.size.get ();
+
+			// sample events once the queue is half full
+			if (this.overflowPolicy == OverflowPolicy.SAMPLE && size >= (this.capacity / 2) && (this.sampled.getAndIncrement () % this.sampleRate) != 0) return false;
+
+			// reserve slot
+			if (size < this.capacity) {
+				if (this.size.compareAndSet (size, (size + 1))) return true;
+				continue;
+			}
+
+			// handle full queue
+			if (this.overflowPolicy != OverflowPolicy.BLOCK) return false;
+			LockSupport.parkNanos (this, TimeUnit.MICROSECONDS.toNanos (100));
+		}
+
+		return false;
+	}
+
+	/**
+	 * Shuts down the queue without blocking.
+	 * All queued events are delivered before the delivery thread exits. The delivery thread is interrupted if it does
+	 * not finish within the timeout (remaining events are discarded in this case) and the returned future is failed
+	 * over (with false) if the thread ignores the interruption for another timeout.
+	 * @param timeout The timeout.
+	 * @param unit The timeout unit.
+	 * @return A future which is completed with true if all queued events have been delivered.
+	 */
+	public Future<Boolean> shutdown (final long timeout, @NonNull final TimeUnit unit) {
+		this.shutdown = true;
+
+		// wake up delivery thread
+		LockSupport.unpark (this.thread);
+
+		// interrupt delivery once the timeout elapses
+		final ScheduledFuture<?> deadline = GlobalEventExecutor.INSTANCE.schedule (new Runnable () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void run () {
+				if (AsynchronousEventQueue.this.terminationFuture.isDone ()) return;
+
+				// log
+				getLogger ().warn ("Event delivery did not finish within %s ms. Interrupting delivery thread.", unit.toMillis (timeout));
+
+				// interrupt delivery
+				AsynchronousEventQueue.this.thread.interrupt ();
+
+				// give up on threads which ignore the interruption
+				GlobalEventExecutor.INSTANCE.schedule (new Runnable () {
+
+					/**
+					 * {@inheritDoc}
+					 */
+					@Override
+					public void run () {
+						if (AsynchronousEventQueue.this.terminationFuture.trySuccess (false)) getLogger ().warn ("Event delivery thread did not terminate after being interrupted.");
+					}
+				}, timeout, unit);
+			}
+		}, timeout, unit);
+
+		this.terminationFuture.addListener (new FutureListener<Boolean> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void operationComplete (Future<Boolean> future) throws Exception {
+				deadline.cancel (false);
+			}
+		});
+
+		return this.terminationFuture;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run () {
+		boolean drained = false;
+
+		try {
+			while (true) {
+				// stop once interrupted during shut down
+				if (this.shutdown && Thread.currentThread ().isInterrupted ()) return;
+
+				Delivery delivery = this.queue.poll ();
+
+				// wait for events (or exit once drained after shut down)
+				if (delivery == null) {
+					if (this.shutdown) {
+						drained = true;
+						return;
+					}
+
+					this.waiting = true;
+					if (this.queue.isEmpty () && !this.shutdown) LockSupport.parkNanos (this, PARK_NANOS);
+					this.waiting = false;
+					continue;
+				}
+
+				this.size.decrementAndGet ();
+
+				// deliver
+				try {
+					for (EventInvoker invoker : delivery.invokers) {
+						try {
+							invoker.invoke (delivery.event);
+						} catch (Throwable ex) {
+							getLogger ().warn ("Could not pass event of type %s to listener %s: %s", delivery.event.getClass ().getName (), invoker.getOwner ().getClass ().getName (), ex.getMessage (), ex);
+						}
+					}
+				} finally {
+					if (delivery.packet != null) delivery.packet.release ();
+				}
+			}
+		} finally {
+			// reject racing offers before discarding the remaining events
+			this.terminated = true;
+			this.discard ();
+
+			this.terminationFuture.trySuccess (drained);
+		}
+	}
+
+	/**
+	 * Discards all queued events.
+	 */
+	private void discard () {
+		Delivery delivery;
+
+		while ((delivery = this.queue.poll ()) != null) {
+			this.size.decrementAndGet ();
+			this.dropped.incrementAndGet ();
+
+			if (delivery.packet != null) delivery.packet.release ();
+		}
+	}
+
+	/**
+	 * Represents a queued event.
+	 */
+	@RequiredArgsConstructor
+	private static class Delivery {
+
+		/**
+		 * Stores the event.
+		 */
+		private final IEvent event;
+
+		/**
+		 * Stores the invokers.
+		 */
+		private final EventInvoker[] invokers;
+
+		/**
+		 * Stores the retained packet (if any).
+		 */
+		private final PacketWrapper packet;
+	}
+}
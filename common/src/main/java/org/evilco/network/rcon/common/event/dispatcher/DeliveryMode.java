@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.event.dispatcher;
+
+/**
+ * Defines how events are delivered to a listener.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public enum DeliveryMode {
+
+	/**
+	 * Listeners are invoked on the posting thread.
+	 */
+	SYNCHRONOUS,
+
+	/**
+	 * Listeners are invoked on the delivery thread of the dispatcher.
+	 * Cancellable events are passed to asynchronous listeners only after all synchronous listeners have been invoked
+	 * and only if the event has not been cancelled (cancelling it from an asynchronous listener has no effect).
+	 */
+	ASYNCHRONOUS
+}
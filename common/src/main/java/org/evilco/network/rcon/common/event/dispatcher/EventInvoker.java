@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.event.dispatcher;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.evilco.network.rcon.common.event.IEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a single registered listener.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@RequiredArgsConstructor
+abstract class EventInvoker {
+
+	/**
+	 * Defines the method type all subscriber handles are adapted to.
+	 */
+	private static final MethodType INVOKER_TYPE = MethodType.methodType (void.class, IEvent.class);
+
+	/**
+	 * Stores the event type.
+	 */
+	@Getter
+	@NonNull
+	private final Class<? extends IEvent> eventType;
+
+	/**
+	 * Stores the registered object.
+	 */
+	@Getter
+	@NonNull
+	private final Object owner;
+
+	/**
+	 * Stores the delivery mode.
+	 */
+	@Getter
+	@NonNull
+	private final DeliveryMode deliveryMode;
+
+	/**
+	 * Creates an invoker for a listener.
+	 * @param eventType The event type.
+	 * @param listener The listener.
+	 * @param deliveryMode The delivery mode.
+	 * @return The invoker.
+	 */
+	public static EventInvoker forListener (@NonNull Class<? extends IEvent> eventType, @NonNull final IEventListener listener, @NonNull DeliveryMode deliveryMode) {
+		return new EventInvoker (eventType, listener, deliveryMode) {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			@SuppressWarnings ("unchecked")
+			public void invoke (IEvent event) {
+				listener.handle (event);
+			}
+		};
+	}
+
+	/**
+	 * Creates an invoker for a subscriber method.
+	 * The method is resolved once into a bound method handle which avoids reflective invocations per event.
+	 * @param subscriber The subscriber.
+	 * @param method The method.
+	 * @param deliveryMode The delivery mode.
+	 * @return The invoker.
+	 * @throws IllegalAccessException Occurs if the method is not accessible.
+	 */
+	@SuppressWarnings ("unchecked")
+	public static EventInvoker forMethod (@NonNull Object subscriber, @NonNull Method method, @NonNull DeliveryMode deliveryMode) throws IllegalAccessException {
+		// ensure method is accessible
+		method.setAccessible (true);
+
+		// resolve handle
+		final MethodHandle handle = MethodHandles.lookup ().unreflect (method).bindTo (subscriber).asType (INVOKER_TYPE);
+
+		return new EventInvoker (((Class<? extends IEvent>) method.getParameterTypes ()[0]), subscriber, deliveryMode) {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void invoke (IEvent event) throws Throwable {
+				handle.invokeExact (event);
+			}
+		};
+	}
+
+	/**
+	 * Invokes the listener.
+	 * @param event The event.
+	 * @throws Throwable Occurs if the listener fails.
+	 */
+	public abstract void invoke (IEvent event) throws Throwable;
+}
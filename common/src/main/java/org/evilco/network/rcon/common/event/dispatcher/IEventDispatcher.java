@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.event.dispatcher;
+
+import org.evilco.network.rcon.common.event.IEvent;
+
+/**
+ * Represents an event dispatcher.
+ * Events are passed to all listeners which are registered for the event type or one of its super types.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public interface IEventDispatcher {
+
+	/**
+	 * Checks whether any listener would receive an event of the specified type.
+	 * Callers may use this method to skip the construction of events nobody listens to.
+	 * @param eventType The event type.
+	 * @return True if at least one listener is registered.
+	 */
+	public boolean hasListeners (Class<? extends IEvent> eventType);
+
+	/**
+	 * Posts an event to all matching listeners.
+	 * @param event The event.
+	 */
+	public void post (IEvent event);
+
+	/**
+	 * Registers all methods of an object which are annotated with {@link com.google.common.eventbus.Subscribe}.
+	 * Each method is expected to accept a single {@link IEvent} parameter.
+	 * @param subscriber The subscriber.
+	 */
+	public void register (Object subscriber);
+
+	/**
+	 * Registers all methods of an object which are annotated with {@link com.google.common.eventbus.Subscribe}.
+	 * @param subscriber The subscriber.
+	 * @param deliveryMode The delivery mode.
+	 */
+	public void register (Object subscriber, DeliveryMode deliveryMode);
+
+	/**
+	 * Registers a listener for an event type.
+	 * @param eventType The event type.
+	 * @param listener The listener.
+	 */
+	public <E extends IEvent> void register (Class<E> eventType, IEventListener<? super E> listener);
+
+	/**
+	 * Registers a listener for an event type.
+	 * @param eventType The event type.
+	 * @param listener The listener.
+	 * @param deliveryMode The delivery mode.
+	 */
+	public <E extends IEvent> void register (Class<E> eventType, IEventListener<? super E> listener, DeliveryMode deliveryMode);
+
+	/**
+	 * Removes all registrations of a subscriber or listener.
+	 * @param subscriber The subscriber or listener.
+	 */
+	public void unregister (Object subscriber);
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.event.dispatcher;
+
+/**
+ * Defines how asynchronous deliveries are handled while the delivery queue is full.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * Events are dropped while the queue is full.
+	 */
+	DROP,
+
+	/**
+	 * The posting thread waits until the queue has room for the event.
+	 * Note: This stalls all connections of an event loop while its listeners are lagging behind.
+	 */
+	BLOCK,
+
+	/**
+	 * Only every n-th event is queued once the queue is half full (and none while it is full).
+	 */
+	SAMPLE
+}
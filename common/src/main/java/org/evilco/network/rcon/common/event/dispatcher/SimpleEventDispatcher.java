@@ -0,0 +1,334 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.event.dispatcher;
+
+import com.google.common.eventbus.Subscribe;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.event.ICancellableEvent;
+import org.evilco.network.rcon.common.event.IEvent;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides a lock-free event dispatcher.
+ * Listeners are resolved per event type into an immutable invoker snapshot which is replaced whenever listeners are
+ * registered or removed. Posting an event thus neither locks nor invokes listeners reflectively.
+ * Asynchronous listeners are invoked on a single delivery thread which drains a bounded queue (see
+ * {@link OverflowPolicy}). The thread is started along with the first asynchronous registration.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class SimpleEventDispatcher implements IEventDispatcher {
+
+	/**
+	 * Stores the internal logger.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (SimpleEventDispatcher.class);
+
+	/**
+	 * Defines the default capacity of the asynchronous delivery queue.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+	/**
+	 * Defines the default sample rate.
+	 */
+	public static final int DEFAULT_SAMPLE_RATE = 16;
+
+	/**
+	 * Defines an empty invoker array.
+	 */
+	private static final EventInvoker[] EMPTY_INVOKERS = new EventInvoker[0];
+
+	/**
+	 * Defines an empty invoker snapshot.
+	 */
+	private static final EventSnapshot EMPTY_SNAPSHOT = new EventSnapshot (EMPTY_INVOKERS, EMPTY_INVOKERS);
+
+	/**
+	 * Stores the capacity of the asynchronous delivery queue.
+	 */
+	@Getter
+	private final int queueCapacity;
+
+	/**
+	 * Stores the overflow policy of the asynchronous delivery queue.
+	 */
+	@Getter
+	private final OverflowPolicy overflowPolicy;
+
+	/**
+	 * Stores the sample rate (used with {@link OverflowPolicy#SAMPLE}).
+	 */
+	@Getter
+	private final int sampleRate;
+
+	/**
+	 * Stores all registered invokers (guarded by this).
+	 */
+	private final List<EventInvoker> invokers = new ArrayList<EventInvoker> ();
+
+	/**
+	 * Stores the invoker snapshots per event type (replaced whenever the registrations change).
+	 */
+	private volatile ClassValue<EventSnapshot> snapshotCache = this.createSnapshotCache (EMPTY_INVOKERS);
+
+	/**
+	 * Stores the asynchronous delivery queue (created along with the first asynchronous registration).
+	 */
+	private volatile AsynchronousEventQueue queue = null;
+
+	/**
+	 * Indicates whether asynchronous delivery has been shut down (guarded by this).
+	 */
+	private boolean shutdown = false;
+
+	/**
+	 * Constructs a new SimpleEventDispatcher instance.
+	 */
+	public SimpleEventDispatcher () {
+		this (DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DROP);
+	}
+
+	/**
+	 * Constructs a new SimpleEventDispatcher instance.
+	 * @param queueCapacity The capacity of the asynchronous delivery queue.
+	 * @param overflowPolicy The overflow policy of the asynchronous delivery queue.
+	 */
+	public SimpleEventDispatcher (int queueCapacity, @NonNull OverflowPolicy overflowPolicy) {
+		this (queueCapacity, overflowPolicy, DEFAULT_SAMPLE_RATE);
+	}
+
+	/**
+	 * Constructs a new SimpleEventDispatcher instance.
+	 * @param queueCapacity The capacity of the asynchronous delivery queue.
+	 * @param overflowPolicy The overflow policy of the asynchronous delivery queue.
+	 * @param sampleRate The sample rate (only every n-th event is queued while sampling).
+	 */
+	public SimpleEventDispatcher (int queueCapacity, @NonNull OverflowPolicy overflowPolicy, int sampleRate) {
+		if (queueCapacity <= 0) throw new IllegalArgumentException ("The queue capacity needs to be positive");
+		if (sampleRate <= 0) throw new IllegalArgumentException ("The sample rate needs to be positive");
+
+		this.queueCapacity = queueCapacity;
+		this.overflowPolicy = overflowPolicy;
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Creates a new snapshot cache.
+	 * @param invokers The registered invokers.
+	 * @return The cache.
+	 */
+	private ClassValue<EventSnapshot> createSnapshotCache (final EventInvoker[] invokers) {
+		return new ClassValue<EventSnapshot> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected EventSnapshot computeValue (Class<?> type) {
+				List<EventInvoker> synchronous = new ArrayList<EventInvoker> ();
+				List<EventInvoker> asynchronous = new ArrayList<EventInvoker> ();
+
+				for (EventInvoker invoker : invokers) {
+					if (!invoker.getEventType ().isAssignableFrom (type)) continue;
+					(invoker.getDeliveryMode () == DeliveryMode.ASYNCHRONOUS ? asynchronous : synchronous).add (invoker);
+				}
+
+				if (synchronous.isEmpty () && asynchronous.isEmpty ()) return EMPTY_SNAPSHOT;
+				return new EventSnapshot (synchronous.toArray (EMPTY_INVOKERS), asynchronous.toArray (EMPTY_INVOKERS));
+			}
+		};
+	}
+
+	/**
+	 * Returns the amount of events which were dropped by the asynchronous delivery queue.
+	 * @return The amount of events.
+	 */
+	public long getDroppedEvents () {
+		AsynchronousEventQueue queue = this.queue;
+		return (queue != null ? queue.getDroppedEvents () : 0);
+	}
+
+	/**
+	 * Shuts down asynchronous delivery without blocking the caller.
+	 * Queued events are delivered before the delivery thread exits. The thread is interrupted once the timeout elapses
+	 * (remaining events are discarded in this case). Asynchronous events which are posted afterwards are dropped and
+	 * no further asynchronous listeners may be registered.
+	 * @param timeout The timeout.
+	 * @param unit The timeout unit.
+	 * @return A future which is completed with true if all queued events have been delivered.
+	 */
+	public Future<Boolean> shutdown (long timeout, @NonNull TimeUnit unit) {
+		AsynchronousEventQueue queue;
+
+		synchronized (this) {
+			this.shutdown = true;
+			queue = this.queue;
+		}
+
+		return (queue != null ? queue.shutdown (timeout, unit) : GlobalEventExecutor.INSTANCE.newSucceededFuture (true));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasListeners (@NonNull Class<? extends IEvent> eventType) {
+		return (this.snapshotCache.get (eventType) != EMPTY_SNAPSHOT);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void post (@NonNull IEvent event) {
+		EventSnapshot snapshot = this.snapshotCache.get (event.getClass ());
+
+		// invoke synchronous listeners
+		for (EventInvoker invoker : snapshot.synchronous) {
+			try {
+				invoker.invoke (event);
+			} catch (Throwable ex) {
+				getLogger ().warn ("Could not pass event of type %s to listener %s: %s", event.getClass ().getName (), invoker.getOwner ().getClass ().getName (), ex.getMessage (), ex);
+			}
+		}
+
+		// queue asynchronous deliveries (cancelled events are not passed on)
+		if (snapshot.asynchronous.length == 0) return;
+		if (event instanceof ICancellableEvent && ((ICancellableEvent) event).isCancelled ()) return;
+
+		if (!this.queue.offer (event, snapshot.asynchronous)) getLogger ().trace ("Dropped asynchronous delivery of event %s.", event.getClass ().getName ());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void register (@NonNull Object subscriber) {
+		this.register (subscriber, DeliveryMode.SYNCHRONOUS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void register (@NonNull Object subscriber, @NonNull DeliveryMode deliveryMode) {
+		List<EventInvoker> invokers = new ArrayList<EventInvoker> ();
+
+		// resolve methods
+		for (Method method : subscriber.getClass ().getMethods ()) {
+			// skip unknown methods
+			if (!method.isAnnotationPresent (Subscribe.class)) continue;
+
+			// verify signature
+			if (method.getParameterTypes ().length != 1 || !IEvent.class.isAssignableFrom (method.getParameterTypes ()[0])) throw new IllegalArgumentException ("Method " + method + " is annotated with @Subscribe but does not accept a single event parameter");
+
+			try {
+				invokers.add (EventInvoker.forMethod (subscriber, method, deliveryMode));
+			} catch (IllegalAccessException ex) {
+				throw new IllegalArgumentException ("Could not access subscriber method " + method + ": " + ex.getMessage (), ex);
+			}
+		}
+
+		// register
+		this.register (invokers);
+
+		// log
+		getLogger ().debug ("Registered %s listeners of subscriber %s.", invokers.size (), subscriber.getClass ().getName ());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <E extends IEvent> void register (@NonNull Class<E> eventType, @NonNull IEventListener<? super E> listener) {
+		this.register (eventType, listener, DeliveryMode.SYNCHRONOUS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <E extends IEvent> void register (@NonNull Class<E> eventType, @NonNull IEventListener<? super E> listener, @NonNull DeliveryMode deliveryMode) {
+		List<EventInvoker> invokers = new ArrayList<EventInvoker> (1);
+		invokers.add (EventInvoker.forListener (eventType, listener, deliveryMode));
+
+		this.register (invokers);
+	}
+
+	/**
+	 * Registers a set of invokers.
+	 * @param invokers The invokers.
+	 */
+	private synchronized void register (@NonNull List<EventInvoker> invokers) {
+		// start delivery thread
+		for (EventInvoker invoker : invokers) {
+			if (invoker.getDeliveryMode () != DeliveryMode.ASYNCHRONOUS) continue;
+			if (this.shutdown) throw new IllegalStateException ("Asynchronous delivery has been shut down");
+
+			if (this.queue == null) this.queue = new AsynchronousEventQueue (this.queueCapacity, this.overflowPolicy, this.sampleRate);
+			break;
+		}
+
+		// update snapshots
+		this.invokers.addAll (invokers);
+		this.snapshotCache = this.createSnapshotCache (this.invokers.toArray (EMPTY_INVOKERS));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void unregister (@NonNull Object subscriber) {
+		Iterator<EventInvoker> iterator = this.invokers.iterator ();
+
+		while (iterator.hasNext ()) {
+			if (iterator.next ().getOwner () == subscriber) iterator.remove ();
+		}
+
+		this.snapshotCache = this.createSnapshotCache (this.invokers.toArray (EMPTY_INVOKERS));
+	}
+
+	/**
+	 * Represents the listeners of a single event type.
+	 */
+	@RequiredArgsConstructor
+	private static class EventSnapshot {
+
+		/**
+		 * Stores the synchronous invokers.
+		 */
+		private final EventInvoker[] synchronous;
+
+		/**
+		 * Stores the asynchronous invokers.
+		 */
+		private final EventInvoker[] asynchronous;
+	}
+}
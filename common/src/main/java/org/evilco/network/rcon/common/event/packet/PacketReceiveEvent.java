@@ -15,19 +15,39 @@
 
 package org.evilco.network.rcon.common.event.packet;
 
-import lombok.AllArgsConstructor;
+import io.netty.util.Recycler;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import org.evilco.network.rcon.common.event.AbstractCancellableEvent;
+import org.evilco.network.rcon.common.event.IRecyclableEvent;
 import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.common.utility.PoolingUtility;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@AllArgsConstructor
-public class PacketReceiveEvent extends AbstractCancellableEvent {
+public class PacketReceiveEvent extends AbstractCancellableEvent implements IPacketEvent, IRecyclableEvent {
+
+	/**
+	 * Stores the event pool.
+	 */
+	private static final Recycler<PacketReceiveEvent> RECYCLER = new Recycler<PacketReceiveEvent> () {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected PacketReceiveEvent newObject (Handle<PacketReceiveEvent> handle) {
+			return new PacketReceiveEvent (handle);
+		}
+	};
+
+	/**
+	 * Stores the recycler handle (or null if this instance is not pooled).
+	 */
+	private final Recycler.Handle<PacketReceiveEvent> handle;
 
 	/**
 	 * Stores the packet.
@@ -36,4 +56,65 @@ public class PacketReceiveEvent extends AbstractCancellableEvent {
 	@Setter
 	@NonNull
 	private PacketWrapper packet;
+
+	/**
+	 * Constructs a new (unpooled) PacketReceiveEvent instance.
+	 * @param packet The packet.
+	 */
+	public PacketReceiveEvent (@NonNull PacketWrapper packet) {
+		this.handle = null;
+		this.packet = packet;
+	}
+
+	/**
+	 * Constructs a new pooled PacketReceiveEvent instance.
+	 * @param handle The recycler handle.
+	 */
+	private PacketReceiveEvent (Recycler.Handle<PacketReceiveEvent> handle) {
+		this.handle = handle;
+	}
+
+	/**
+	 * Returns an event for the specified packet (which is taken from the pool if pooling is enabled).
+	 * @param packet The packet.
+	 * @return The event.
+	 */
+	public static PacketReceiveEvent newInstance (@NonNull PacketWrapper packet) {
+		// skip pool
+		if (!PoolingUtility.ENABLED) return new PacketReceiveEvent (packet);
+
+		// get instance
+		PacketReceiveEvent event = RECYCLER.get ();
+		event.packet = packet;
+
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PacketReceiveEvent copy () {
+		// create copy
+		PacketReceiveEvent event = new PacketReceiveEvent (this.packet);
+		event.setCancelled (this.isCancelled ());
+
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void recycle () {
+		// skip unpooled instances
+		if (this.handle == null) return;
+
+		// reset state
+		this.packet = null;
+		this.setCancelled (false);
+
+		// recycle
+		RECYCLER.recycle (this, this.handle);
+	}
 }
@@ -15,19 +15,39 @@
 
 package org.evilco.network.rcon.common.event.packet;
 
-import lombok.AllArgsConstructor;
+import io.netty.util.Recycler;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import org.evilco.network.rcon.common.event.AbstractCancellableEvent;
+import org.evilco.network.rcon.common.event.IRecyclableEvent;
 import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.common.utility.PoolingUtility;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@AllArgsConstructor
-public class PacketSendEvent extends AbstractCancellableEvent {
+public class PacketSendEvent extends AbstractCancellableEvent implements IPacketEvent, IRecyclableEvent {
+
+	/**
+	 * Stores the event pool.
+	 */
+	private static final Recycler<PacketSendEvent> RECYCLER = new Recycler<PacketSendEvent> () {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected PacketSendEvent newObject (Handle<PacketSendEvent> handle) {
+			return new PacketSendEvent (handle);
+		}
+	};
+
+	/**
+	 * Stores the recycler handle (or null if this instance is not pooled).
+	 */
+	private final Recycler.Handle<PacketSendEvent> handle;
 
 	/**
 	 * Stores the packet.
@@ -36,4 +56,65 @@ public class PacketSendEvent extends AbstractCancellableEvent {
 	@Setter
 	@NonNull
 	private PacketWrapper packet;
+
+	/**
+	 * Constructs a new (unpooled) PacketSendEvent instance.
+	 * @param packet The packet.
+	 */
+	public PacketSendEvent (@NonNull PacketWrapper packet) {
+		this.handle = null;
+		this.packet = packet;
+	}
+
+	/**
+	 * Constructs a new pooled PacketSendEvent instance.
+	 * @param handle The recycler handle.
+	 */
+	private PacketSendEvent (Recycler.Handle<PacketSendEvent> handle) {
+		this.handle = handle;
+	}
+
+	/**
+	 * Returns an event for the specified packet (which is taken from the pool if pooling is enabled).
+	 * @param packet The packet.
+	 * @return The event.
+	 */
+	public static PacketSendEvent newInstance (@NonNull PacketWrapper packet) {
+		// skip pool
+		if (!PoolingUtility.ENABLED) return new PacketSendEvent (packet);
+
+		// get instance
+		PacketSendEvent event = RECYCLER.get ();
+		event.packet = packet;
+
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PacketSendEvent copy () {
+		// create copy
+		PacketSendEvent event = new PacketSendEvent (this.packet);
+		event.setCancelled (this.isCancelled ());
+
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void recycle () {
+		// skip unpooled instances
+		if (this.handle == null) return;
+
+		// reset state
+		this.packet = null;
+		this.setCancelled (false);
+
+		// recycle
+		RECYCLER.recycle (this, this.handle);
+	}
 }
@@ -15,18 +15,38 @@
 
 package org.evilco.network.rcon.common.event.packet;
 
-import lombok.AllArgsConstructor;
+import io.netty.util.Recycler;
 import lombok.Getter;
 import lombok.NonNull;
 import org.evilco.network.rcon.common.event.AbstractEvent;
+import org.evilco.network.rcon.common.event.IRecyclableEvent;
 import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.common.utility.PoolingUtility;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@AllArgsConstructor
-public class PacketSentEvent extends AbstractEvent {
+public class PacketSentEvent extends AbstractEvent implements IPacketEvent, IRecyclableEvent {
+
+	/**
+	 * Stores the event pool.
+	 */
+	private static final Recycler<PacketSentEvent> RECYCLER = new Recycler<PacketSentEvent> () {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected PacketSentEvent newObject (Handle<PacketSentEvent> handle) {
+			return new PacketSentEvent (handle);
+		}
+	};
+
+	/**
+	 * Stores the recycler handle (or null if this instance is not pooled).
+	 */
+	private final Recycler.Handle<PacketSentEvent> handle;
 
 	/**
 	 * Stores the packet.
@@ -34,4 +54,60 @@ public class PacketSentEvent extends AbstractEvent {
 	@Getter
 	@NonNull
 	private PacketWrapper packet;
+
+	/**
+	 * Constructs a new (unpooled) PacketSentEvent instance.
+	 * @param packet The packet.
+	 */
+	public PacketSentEvent (@NonNull PacketWrapper packet) {
+		this.handle = null;
+		this.packet = packet;
+	}
+
+	/**
+	 * Constructs a new pooled PacketSentEvent instance.
+	 * @param handle The recycler handle.
+	 */
+	private PacketSentEvent (Recycler.Handle<PacketSentEvent> handle) {
+		this.handle = handle;
+	}
+
+	/**
+	 * Returns an event for the specified packet (which is taken from the pool if pooling is enabled).
+	 * @param packet The packet.
+	 * @return The event.
+	 */
+	public static PacketSentEvent newInstance (@NonNull PacketWrapper packet) {
+		// skip pool
+		if (!PoolingUtility.ENABLED) return new PacketSentEvent (packet);
+
+		// get instance
+		PacketSentEvent event = RECYCLER.get ();
+		event.packet = packet;
+
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PacketSentEvent copy () {
+		return new PacketSentEvent (this.packet);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void recycle () {
+		// skip unpooled instances
+		if (this.handle == null) return;
+
+		// reset state
+		this.packet = null;
+
+		// recycle
+		RECYCLER.recycle (this, this.handle);
+	}
 }
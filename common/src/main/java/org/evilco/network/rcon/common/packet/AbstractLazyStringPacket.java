@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.packet;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
+import lombok.NonNull;
+import org.evilco.network.rcon.common.utility.BufferUtility;
+
+/**
+ * Provides a base for packets which carry a single string.
+ * Decoded packets keep a retained slice of their frame and only decode the string when it is first requested. Packets
+ * are reference counted on their own (the slice shares the count of its parent buffer with every other packet cut from
+ * the same read) and release the slice once their last reference is gone through the {@link ReferenceCounted}
+ * contract (packets created from a string do not hold a buffer). The string needs to be requested before the packet
+ * is released if it is needed later on.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public abstract class AbstractLazyStringPacket extends AbstractReferenceCounted implements IPacket {
+
+	/**
+	 * Stores the encoded body (if any).
+	 */
+	private final ByteBuf body;
+
+	/**
+	 * Stores the decoded value.
+	 */
+	private String value;
+
+	/**
+	 * Constructs a new AbstractLazyStringPacket instance.
+	 * @param value The value.
+	 */
+	protected AbstractLazyStringPacket (String value) {
+		this.body = null;
+		this.value = value;
+	}
+
+	/**
+	 * Constructs a new AbstractLazyStringPacket instance.
+	 * @param buffer The packet buffer.
+	 */
+	protected AbstractLazyStringPacket (@NonNull ByteBuf buffer) {
+		this.body = (buffer.isReadable () ? buffer.readSlice (buffer.readableBytes ()).retain () : null);
+		this.value = null;
+	}
+
+	/**
+	 * Returns the value (decodes the body on first access).
+	 * @return The value or null if the packet body was empty.
+	 */
+	protected String getValue () {
+		if (this.value == null && this.body != null) this.value = BufferUtility.readAscii (this.body.duplicate (), this.body.readableBytes ());
+		return this.value;
+	}
+
+	/**
+	 * Returns the maximum encoded body length.
+	 * The returned value is exact for undecoded bodies and an upper bound otherwise (each character is encoded into at
+	 * most one byte).
+	 * @return The length in bytes.
+	 */
+	protected int getBodyLength () {
+		if (this.value == null) return (this.body != null ? this.body.readableBytes () : 0);
+		return this.value.length ();
+	}
+
+	/**
+	 * Returns the encoded body of packets which have not been decoded yet.
+	 * The returned view shares its content and reference count with the body and is only valid while the packet is alive.
+	 * @return The body or null if the value has been decoded (or passed at construction time) or the body is empty.
+	 */
+	public ByteBuf getEncodedBody () {
+		return (this.value == null && this.body != null ? this.body.duplicate () : null);
+	}
+
+	/**
+	 * Checks whether the value has been decoded (or was passed at construction time).
+	 * @return True if decoded.
+	 */
+	public boolean isDecoded () {
+		return (this.value != null || this.body == null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write (@NonNull ByteBuf buffer) {
+		// pass through undecoded bodies
+		if (this.value == null && this.body != null) {
+			buffer.writeBytes (this.body, this.body.readerIndex (), this.body.readableBytes ());
+			return;
+		}
+
+		// encode value
+		if (this.value != null) BufferUtility.writeAscii (buffer, this.value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void deallocate () {
+		if (this.body != null) this.body.release ();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AbstractLazyStringPacket retain () {
+		super.retain ();
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AbstractLazyStringPacket retain (int increment) {
+		super.retain (increment);
+		return this;
+	}
+}
@@ -15,12 +15,12 @@
 
 package org.evilco.network.rcon.common.packet;
 
-import com.google.common.base.Charsets;
 import io.netty.buffer.ByteBuf;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.evilco.network.rcon.common.packet.annotation.Packet;
+import org.evilco.network.rcon.common.utility.BufferUtility;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
@@ -42,17 +42,7 @@ public class AuthenticationPacket implements IPacket {
 	 * @param buffer The packet buffer.
 	 */
 	public AuthenticationPacket (@NonNull ByteBuf buffer) {
-		// get length
-		int length = buffer.readableBytes ();
-
-		// create string array
-		byte[] data = new byte[length];
-
-		// read data
-		buffer.readBytes (data);
-
-		// re-construct string
-		this.password = new String (data, Charsets.US_ASCII);
+		this.password = BufferUtility.readAscii (buffer, buffer.readableBytes ());
 	}
 
 	/**
@@ -60,6 +50,6 @@ public class AuthenticationPacket implements IPacket {
 	 */
 	@Override
 	public void write (@NonNull ByteBuf buffer) {
-		buffer.writeBytes (this.password.getBytes (Charsets.US_ASCII));
+		BufferUtility.writeAscii (buffer, this.password);
 	}
 }
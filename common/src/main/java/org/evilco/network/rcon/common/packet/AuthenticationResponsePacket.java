@@ -41,7 +41,5 @@ public class AuthenticationResponsePacket implements IPacket {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void write (@NonNull ByteBuf buffer) {
-		buffer.writeBytes (new byte[] { 0x00, 0x00 });
-	}
+	public void write (@NonNull ByteBuf buffer) { }
 }
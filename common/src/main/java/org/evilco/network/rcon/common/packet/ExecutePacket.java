@@ -15,51 +15,40 @@
 
 package org.evilco.network.rcon.common.packet;
 
-import com.google.common.base.Charsets;
 import io.netty.buffer.ByteBuf;
-import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import org.evilco.network.rcon.common.packet.annotation.Packet;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@RequiredArgsConstructor
 @Packet (packetID = 0x02, direction = ProtocolDirection.SERVERBOUND)
-public class ExecutePacket implements IPacket {
+public class ExecutePacket extends AbstractLazyStringPacket {
 
 	/**
-	 * Stores the command.
+	 * Constructs a new ExecutePacket instance.
+	 * @param command The command.
 	 */
-	@Getter
-	@NonNull
-	private final String command;
+	public ExecutePacket (@NonNull String command) {
+		super (command);
+	}
 
 	/**
 	 * Constructs a new ExecutePacket instance.
+	 * The command is decoded from the retained body on first access.
 	 * @param buffer The packet buffer.
 	 */
 	public ExecutePacket (@NonNull ByteBuf buffer) {
-		// get length
-		int length = buffer.readableBytes ();
-
-		// create string array
-		byte[] data = new byte[length];
-
-		// read data
-		buffer.readBytes (data);
-
-		// store command
-		this.command = new String (data, Charsets.US_ASCII);
+		super (buffer);
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Returns the command.
+	 * @return The command.
 	 */
-	@Override
-	public void write (@NonNull ByteBuf buffer) {
-		buffer.writeBytes (this.command.getBytes (Charsets.US_ASCII));
+	public String getCommand () {
+		String command = this.getValue ();
+		return (command != null ? command : "");
 	}
 }
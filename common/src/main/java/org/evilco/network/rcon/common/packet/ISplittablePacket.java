@@ -15,9 +15,12 @@
 
 package org.evilco.network.rcon.common.packet;
 
+import io.netty.buffer.ByteBufAllocator;
+
 import java.util.List;
 
 /**
+ * Represents a packet which is split into multiple packets by the encoder if its body exceeds the protocol limits.
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
@@ -25,6 +28,9 @@ public interface ISplittablePacket extends IPacket {
 
 	/**
 	 * Splits a packet into multiple elements.
+	 * Returned packets may hold buffers allocated from the passed allocator and are released by the encoder once written.
+	 * @param allocator The allocator.
+	 * @return The packets or null if the packet does not need to be split.
 	 */
-	public List<IPacket> split ();
+	public List<IPacket> split (ByteBufAllocator allocator);
 }
@@ -15,27 +15,144 @@
 
 package org.evilco.network.rcon.common.packet;
 
-import lombok.Getter;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.Recycler;
+import io.netty.util.ReferenceCountUtil;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import org.evilco.network.rcon.common.utility.PoolingUtility;
 
 /**
+ * Wraps a packet along with its identifier.
+ * Wrappers are reference counted on their own and release their packet (if it holds a buffer, such as
+ * {@link AbstractLazyStringPacket}) once the last reference is gone. Instances created through
+ * {@link #newInstance(int, IPacket)} are recycled at that point when pooling is enabled (see {@link PoolingUtility}),
+ * thus code which keeps a reference beyond the current call has to {@link #retain()} the wrapper.
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@RequiredArgsConstructor
-public class PacketWrapper<T extends IPacket> {
+public class PacketWrapper<T extends IPacket> extends AbstractReferenceCounted {
+
+	/**
+	 * Stores the wrapper pool.
+	 */
+	private static final Recycler<PacketWrapper> RECYCLER = new Recycler<PacketWrapper> () {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected PacketWrapper newObject (Handle<PacketWrapper> handle) {
+			return new PacketWrapper (handle);
+		}
+	};
+
+	/**
+	 * Stores the recycler handle (or null if this instance is not pooled).
+	 */
+	private final Recycler.Handle<PacketWrapper> handle;
 
 	/**
 	 * Stores the packet identifier.
+	 * The field is only assigned when a pooled instance is (re-)initialized and must not be modified by other code.
+	 * @deprecated Use {@link #getIdentifier()} instead (the field is no longer final since instances may be recycled).
 	 */
-	@Getter
-	public final int identifier;
+	@Deprecated
+	public int identifier;
 
 	/**
 	 * Stores the packet.
+	 * The field is only assigned when a pooled instance is (re-)initialized and must not be modified by other code.
+	 * @deprecated Use {@link #getPacket()} instead (the field is no longer final since instances may be recycled).
+	 */
+	@Deprecated
+	public T packet;
+
+	/**
+	 * Constructs a new (unpooled) PacketWrapper instance.
+	 * @param identifier The packet identifier.
+	 * @param packet The packet.
+	 */
+	public PacketWrapper (int identifier, @NonNull T packet) {
+		this.handle = null;
+		this.identifier = identifier;
+		this.packet = packet;
+	}
+
+	/**
+	 * Constructs a new pooled PacketWrapper instance.
+	 * @param handle The recycler handle.
+	 */
+	private PacketWrapper (Recycler.Handle<PacketWrapper> handle) {
+		this.handle = handle;
+	}
+
+	/**
+	 * Returns the packet identifier.
+	 * @return The identifier.
+	 */
+	public int getIdentifier () {
+		return this.identifier;
+	}
+
+	/**
+	 * Returns the packet.
+	 * @return The packet.
+	 */
+	public T getPacket () {
+		return this.packet;
+	}
+
+	/**
+	 * Returns a wrapper for the specified packet (which is taken from the pool if pooling is enabled).
+	 * @param identifier The packet identifier.
+	 * @param packet The packet.
+	 * @return The wrapper.
+	 */
+	@SuppressWarnings ("unchecked")
+	public static <T extends IPacket> PacketWrapper<T> newInstance (int identifier, @NonNull T packet) {
+		// skip pool
+		if (!PoolingUtility.ENABLED) return new PacketWrapper<T> (identifier, packet);
+
+		// get instance
+		PacketWrapper<T> wrapper = RECYCLER.get ();
+		wrapper.setRefCnt (1);
+		wrapper.identifier = identifier;
+		wrapper.packet = packet;
+
+		return wrapper;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void deallocate () {
+		// release packet
+		ReferenceCountUtil.release (this.packet);
+
+		// skip unpooled instances
+		if (this.handle == null) return;
+
+		// recycle
+		this.packet = null;
+		RECYCLER.recycle (this, this.handle);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PacketWrapper<T> retain () {
+		super.retain ();
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
 	 */
-	@Getter
-	@NonNull
-	public final T packet;
+	@Override
+	public PacketWrapper<T> retain (int increment) {
+		super.retain (increment);
+		return this;
+	}
 }
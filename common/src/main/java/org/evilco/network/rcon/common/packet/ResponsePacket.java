@@ -15,12 +15,10 @@
 
 package org.evilco.network.rcon.common.packet;
 
-import com.google.common.base.Charsets;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
-import lombok.Getter;
+import io.netty.buffer.ByteBufAllocator;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import org.evilco.network.rcon.common.codec.FrameCodec;
 import org.evilco.network.rcon.common.packet.annotation.Packet;
 
 import java.util.ArrayList;
@@ -30,104 +28,98 @@ import java.util.List;
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@RequiredArgsConstructor
 @Packet (packetID = 0x00, direction = ProtocolDirection.CLIENTBOUND)
-public class ResponsePacket implements ISplittablePacket {
+public class ResponsePacket extends AbstractLazyStringPacket implements ISplittablePacket {
 
 	/**
-	 * Stores the response.
+	 * Defines the amount of bytes a frame adds to the packet body (identifier, packet identifier and terminator).
 	 */
-	@Getter
-	private final String response;
+	public static final int FRAME_OVERHEAD = 10;
+
+	/**
+	 * Defines the maximum body size of a single response packet (the resulting frame fits the default frame size limit).
+	 */
+	public static final int MAXIMUM_CHUNK_SIZE = (FrameCodec.DEFAULT_MAXIMUM_FRAME_SIZE - FRAME_OVERHEAD);
+
+	/**
+	 * Constructs a new ResponsePacket instance.
+	 * @param response The response.
+	 */
+	public ResponsePacket (String response) {
+		super (response);
+	}
 
 	/**
 	 * De-Serializes a ResponsePacket instance.
+	 * The response is decoded from the retained body on first access.
 	 * @param buffer The packet buffer.
 	 */
 	public ResponsePacket (@NonNull ByteBuf buffer) {
-		// get length
-		int length = buffer.readableBytes ();
-
-		// skip empty packet
-		if (length == 0) {
-			this.response = null;
-			return;
-		}
-
-		// create string array
-		byte[] data = new byte[length];
-
-		// read data
-		buffer.readBytes (data);
+		super (buffer);
+	}
 
-		// re-construct string
-		this.response = new String (data, Charsets.US_ASCII);
+	/**
+	 * Returns the response.
+	 * @return The response or null if the packet was empty.
+	 */
+	public String getResponse () {
+		return this.getValue ();
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public List<IPacket> split () {
-		// create buffer
-		ByteBuf buffer = Unpooled.buffer ();
-
-		// encode
-		this.write (buffer);
-
-		// calculate amount of packets
-		int packetCount = ((int) Math.ceil ((buffer.readableBytes () / 4096)));
+	public List<IPacket> split (@NonNull ByteBufAllocator allocator) {
+		// skip packets which fit into a single chunk
+		if (this.getBodyLength () <= MAXIMUM_CHUNK_SIZE) return null;
+
+		// reuse the encoded body (or encode the value once)
+		ByteBuf buffer = this.getEncodedBody ();
+
+		if (buffer != null)
+			buffer.retain ();
+		else {
+			buffer = allocator.buffer (this.getBodyLength ());
+
+			try {
+				this.write (buffer);
+			} catch (RuntimeException ex) {
+				buffer.release ();
+				throw ex;
+			}
+		}
 
-		// verify amount
-		if (packetCount <= 1) return null;
+		try {
+			// verify amount (the encoded body may be shorter than estimated)
+			if (buffer.readableBytes () <= MAXIMUM_CHUNK_SIZE) return null;
 
-		// create list
-		List<IPacket> packetList = new ArrayList<IPacket> ();
+			// create list
+			List<IPacket> packetList = new ArrayList<IPacket> (((buffer.readableBytes () + MAXIMUM_CHUNK_SIZE - 1) / MAXIMUM_CHUNK_SIZE));
 
-		// encode packets
-		while (buffer.readableBytes () > 0) {
-			// read a chunk
-			byte[] data = new byte[Math.min (buffer.readableBytes (), 4096)];
-			buffer.readBytes (data);
+			// slice chunks (each chunk retains the shared buffer)
+			while (buffer.isReadable ()) packetList.add (new ResponseWrapperPacket (buffer.readSlice (Math.min (buffer.readableBytes (), MAXIMUM_CHUNK_SIZE))));
 
-			// create and add wrapper packet
-			packetList.add (new ResponseWrapperPacket (data));
+			// return finished list
+			return packetList;
+		} finally {
+			buffer.release ();
 		}
-
-		// return finished list
-		return packetList;
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public void write (@NonNull ByteBuf buffer) {
-		if (this.response != null && !this.response.isEmpty ())
-			buffer.writeBytes (this.response.getBytes (Charsets.US_ASCII));
-		else
-			buffer.writeBytes (new byte[] { 0x00, 0x00 });
 	}
 
 	/**
 	 * A wrapper packet used for message splitting.
+	 * Chunks are sent as regular response packets (the client concatenates all responses with the same identifier).
 	 */
-	@RequiredArgsConstructor
-	@Packet (packetID = 0x03, direction = ProtocolDirection.CLIENTBOUND)
-	public class ResponseWrapperPacket implements IPacket {
-
-		/**
-		 * Stores the chunk.
-		 */
-		@NonNull
-		private final byte[] data;
+	@Packet (packetID = 0x00, direction = ProtocolDirection.CLIENTBOUND)
+	public static class ResponseWrapperPacket extends AbstractLazyStringPacket {
 
 		/**
-		 * {@inheritDoc}
+		 * Constructs a new ResponseWrapperPacket instance.
+		 * @param chunk The chunk.
 		 */
-		@Override
-		public void write (@NonNull ByteBuf buffer) {
-			buffer.writeBytes (this.data);
+		public ResponseWrapperPacket (@NonNull ByteBuf chunk) {
+			super (chunk);
 		}
 	}
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.packet.registry;
+
+import io.netty.buffer.ByteBuf;
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.network.rcon.common.error.InvalidPacketException;
+import org.evilco.network.rcon.common.error.PacketException;
+import org.evilco.network.rcon.common.packet.IPacket;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+/**
+ * Creates packets through their {@link ByteBuf} constructor.
+ * The constructor is resolved once into a method handle which avoids reflective look ups and invocations per packet.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class ConstructorPacketFactory implements IPacketFactory {
+
+	/**
+	 * Defines the method type all constructor handles are adapted to.
+	 */
+	private static final MethodType FACTORY_TYPE = MethodType.methodType (IPacket.class, ByteBuf.class);
+
+	/**
+	 * Stores the packet class.
+	 */
+	@Getter
+	private final Class<? extends IPacket> packetClass;
+
+	/**
+	 * Stores the constructor handle.
+	 */
+	private final MethodHandle constructor;
+
+	/**
+	 * Constructs a new ConstructorPacketFactory instance.
+	 * @param packetClass The packet class.
+	 * @throws InvalidPacketException Occurs if the packet does not provide an accessible {@link ByteBuf} constructor.
+	 */
+	public ConstructorPacketFactory (@NonNull Class<? extends IPacket> packetClass) throws InvalidPacketException {
+		this.packetClass = packetClass;
+
+		try {
+			// find constructor
+			Constructor<? extends IPacket> constructor = packetClass.getConstructor (ByteBuf.class);
+
+			// ensure constructor is accessible
+			constructor.setAccessible (true);
+
+			// resolve handle
+			this.constructor = MethodHandles.lookup ().unreflectConstructor (constructor).asType (FACTORY_TYPE);
+		} catch (NoSuchMethodException | IllegalAccessException ex) {
+			throw new InvalidPacketException ("Invalid packet implementation: " + ex.getMessage (), ex);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IPacket create (@NonNull ByteBuf buffer) throws PacketException {
+		try {
+			return ((IPacket) this.constructor.invokeExact (buffer));
+		} catch (PacketException ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new InvalidPacketException ("Invalid packet implementation: " + ex.getMessage (), ex);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.packet.registry;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.error.InvalidPacketException;
+import org.evilco.network.rcon.common.error.PacketException;
+import org.evilco.network.rcon.common.packet.IPacket;
+
+import java.util.Arrays;
+
+/**
+ * Provides a packet registry which resolves a factory for each packet at registration time.
+ * Factories are stored in a table indexed by packet identifier.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class IndexedPacketRegistry extends SimplePacketRegistry {
+
+	/**
+	 * Defines the highest packet identifier stored in the factory table.
+	 * Packets with higher (or negative) identifiers are constructed through reflection.
+	 */
+	public static final int MAXIMUM_INDEXED_PACKET_ID = 255;
+
+	/**
+	 * Stores the internal logger instance.
+	 */
+	private static final Logger logger = LogManager.getFormatterLogger (IndexedPacketRegistry.class);
+
+	/**
+	 * Stores the factory table.
+	 */
+	private volatile IPacketFactory[] factories = new IPacketFactory[0];
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IPacket createPacketInstance (int packetID, ByteBuf buffer) throws PacketException {
+		// find factory
+		IPacketFactory factory = this.findFactory (packetID);
+
+		// use factory
+		if (factory != null) return factory.create (buffer);
+
+		// fall back to reflection
+		return super.createPacketInstance (packetID, buffer);
+	}
+
+	/**
+	 * Searches the factory for a packet identifier.
+	 * @param packetID The packet identifier.
+	 * @return The factory or null.
+	 */
+	protected IPacketFactory findFactory (int packetID) {
+		IPacketFactory[] factories = this.factories;
+		return (packetID >= 0 && packetID < factories.length ? factories[packetID] : null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void registerPacket (int packetID, @NonNull Class<? extends IPacket> packetClass) {
+		// resolve factory
+		IPacketFactory factory = null;
+
+		try {
+			factory = new ConstructorPacketFactory (packetClass);
+		} catch (InvalidPacketException ex) {
+			logger.debug ("Could not resolve factory for packet type %s: %s", packetClass.getName (), ex.getMessage ());
+		}
+
+		// register
+		this.registerPacket (packetID, packetClass, factory);
+	}
+
+	/**
+	 * Registers a new packet.
+	 * @param packetID The packetID.
+	 * @param packetClass The packet class.
+	 * @param factory The packet factory (or null to fall back to reflection).
+	 */
+	public synchronized void registerPacket (int packetID, @NonNull Class<? extends IPacket> packetClass, IPacketFactory factory) {
+		super.registerPacket (packetID, packetClass);
+
+		// skip identifiers outside of the table range
+		if (packetID < 0 || packetID > MAXIMUM_INDEXED_PACKET_ID) return;
+
+		// publish a new table
+		IPacketFactory[] factories = Arrays.copyOf (this.factories, Math.max (this.factories.length, (packetID + 1)));
+		factories[packetID] = factory;
+		this.factories = factories;
+	}
+}
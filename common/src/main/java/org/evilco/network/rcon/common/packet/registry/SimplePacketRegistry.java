@@ -46,6 +46,11 @@ public class SimplePacketRegistry implements IWritablePacketRegistry {
 	 */
 	private BiMap<Integer, Class<? extends IPacket>> map = HashBiMap.create ();
 
+	/**
+	 * Stores the packetID cache (replaced whenever a packet is registered).
+	 */
+	private volatile ClassValue<Integer> packetIDCache = this.createPacketIDCache ();
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -87,9 +92,25 @@ public class SimplePacketRegistry implements IWritablePacketRegistry {
 	 */
 	@Override
 	public int findPacketID (@NonNull Class<? extends IPacket> packetClass) throws PacketException {
+		// find cached ID
+		Integer packetID = this.packetIDCache.get (packetClass);
+
+		// check for annotation
+		if (packetID == null) throw new InvalidPacketException ("Could not find packetID for packet type " + packetClass.getName () + ".");
+
+		// return cached ID
+		return packetID;
+	}
+
+	/**
+	 * Resolves a packet identifier without consulting the cache.
+	 * @param packetClass The packet class.
+	 * @return The packet identifier or null.
+	 */
+	protected Integer resolvePacketID (@NonNull Class<?> packetClass) {
 		if (!this.map.inverse ().containsKey (packetClass)) {
 			// check for annotation
-			if (!packetClass.isAnnotationPresent (Packet.class)) throw new InvalidPacketException ("Could not find packetID for packet type " + packetClass.getName () + ".");
+			if (!packetClass.isAnnotationPresent (Packet.class)) return null;
 
 			// debug log
 			logger.debug ("Could not find identifier for packet type %s. Falling back to annotation.", packetClass.getName ());
@@ -102,6 +123,23 @@ public class SimplePacketRegistry implements IWritablePacketRegistry {
 		return this.map.inverse ().get (packetClass);
 	}
 
+	/**
+	 * Creates a new packetID cache.
+	 * @return The cache.
+	 */
+	private ClassValue<Integer> createPacketIDCache () {
+		return new ClassValue<Integer> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			protected Integer computeValue (Class<?> type) {
+				return resolvePacketID (type);
+			}
+		};
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -116,5 +154,8 @@ public class SimplePacketRegistry implements IWritablePacketRegistry {
 	@Override
 	public void registerPacket (int packetID, @NonNull Class<? extends IPacket> packetClass) {
 		this.map.put (packetID, packetClass);
+
+		// invalidate cache
+		this.packetIDCache = this.createPacketIDCache ();
 	}
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.evilco.network.rcon.common.protocol;
+
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes connections which exceed their read, write or session timeout.
+ * Reads and writes only record the time of the last read batch and flush. A single timeout per connection is kept in
+ * the manager's timer which re-evaluates all deadlines on the channel's event loop once it expires.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@RequiredArgsConstructor
+public class ConnectionTimeoutHandler extends ChannelHandlerAdapter implements TimerTask, Runnable {
+
+	/**
+	 * Stores the internal logger.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (ConnectionTimeoutHandler.class);
+
+	/**
+	 * Stores the timeout manager.
+	 */
+	@Getter
+	@NonNull
+	private final TimeoutManager manager;
+
+	/**
+	 * Stores the channel handler context (or null if the handler has not been initialized yet).
+	 */
+	private ChannelHandlerContext context = null;
+
+	/**
+	 * Stores the pending timeout (or null if no deadline is scheduled).
+	 */
+	private Timeout timeout = null;
+
+	/**
+	 * Indicates whether the handler has been destroyed.
+	 */
+	private boolean destroyed = false;
+
+	/**
+	 * Stores the time of the session start (in nanoseconds).
+	 */
+	private long sessionStartTime;
+
+	/**
+	 * Stores the time of the last read (in nanoseconds).
+	 */
+	private long lastReadTime;
+
+	/**
+	 * Stores the time of the last flush (in nanoseconds).
+	 */
+	private long lastWriteTime;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void handlerAdded (ChannelHandlerContext ctx) throws Exception {
+		if (ctx.channel ().isActive ()) this.initialize (ctx);
+		super.handlerAdded (ctx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void handlerRemoved (ChannelHandlerContext ctx) throws Exception {
+		this.destroy ();
+		super.handlerRemoved (ctx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelActive (ChannelHandlerContext ctx) throws Exception {
+		this.initialize (ctx);
+		super.channelActive (ctx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelInactive (ChannelHandlerContext ctx) throws Exception {
+		this.destroy ();
+		super.channelInactive (ctx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelReadComplete (ChannelHandlerContext ctx) throws Exception {
+		this.lastReadTime = System.nanoTime ();
+		super.channelReadComplete (ctx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flush (ChannelHandlerContext ctx) throws Exception {
+		this.lastWriteTime = System.nanoTime ();
+		super.flush (ctx);
+	}
+
+	/**
+	 * Starts tracking the deadlines of a connection.
+	 * @param ctx The channel handler context.
+	 */
+	protected void initialize (ChannelHandlerContext ctx) {
+		// skip repeated initializations
+		if (this.context != null || this.destroyed) return;
+
+		// initialize state
+		this.context = ctx;
+		this.sessionStartTime = this.lastReadTime = this.lastWriteTime = System.nanoTime ();
+
+		// schedule first deadline
+		this.schedule (this.sessionStartTime);
+	}
+
+	/**
+	 * Stops tracking the deadlines of a connection.
+	 */
+	protected void destroy () {
+		this.destroyed = true;
+
+		if (this.timeout != null) {
+			this.timeout.cancel ();
+			this.timeout = null;
+		}
+	}
+
+	/**
+	 * Schedules the timeout for the next deadline or closes the connection if a deadline has passed.
+	 * @param now The current time (in nanoseconds).
+	 */
+	protected void schedule (long now) {
+		long delay = Long.MAX_VALUE;
+
+		// find next deadline
+		if (this.manager.getReadTimeout () > 0) delay = Math.min (delay, this.lastReadTime + TimeUnit.MILLISECONDS.toNanos (this.manager.getReadTimeout ()) - now);
+		if (this.manager.getWriteTimeout () > 0) delay = Math.min (delay, this.lastWriteTime + TimeUnit.MILLISECONDS.toNanos (this.manager.getWriteTimeout ()) - now);
+		if (this.manager.getSessionTimeout () > 0) delay = Math.min (delay, this.sessionStartTime + TimeUnit.MILLISECONDS.toNanos (this.manager.getSessionTimeout ()) - now);
+
+		// skip disabled timeouts
+		if (delay == Long.MAX_VALUE) return;
+
+		// close connection
+		if (delay <= 0) {
+			// log
+			getLogger ().debug ("Client %s exceeded its timeout. Closing connection.", this.context.channel ().remoteAddress ());
+
+			// close connection
+			this.destroy ();
+			this.context.close ();
+			return;
+		}
+
+		// schedule timeout
+		this.timeout = this.manager.schedule (this, delay);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run (Timeout timeout) throws Exception {
+		// evaluate deadlines on the event loop (the handler state is not thread safe)
+		try {
+			this.context.executor ().execute (this);
+		} catch (RejectedExecutionException ex) {
+			// the event loop is shutting down and closes the channel on its own
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run () {
+		if (this.destroyed) return;
+		this.schedule (System.nanoTime ());
+	}
+}
@@ -15,18 +15,17 @@
 
 package org.evilco.network.rcon.common.protocol;
 
-import com.google.common.eventbus.EventBus;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
-import io.netty.handler.timeout.ReadTimeoutHandler;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import org.evilco.network.rcon.common.codec.FrameCodec;
+import org.evilco.network.rcon.common.codec.FramedRconCodec;
 import org.evilco.network.rcon.common.codec.ICodecConfiguration;
 import org.evilco.network.rcon.common.codec.RconCodec;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
 
 import java.util.concurrent.TimeUnit;
 
@@ -34,24 +33,88 @@ import java.util.concurrent.TimeUnit;
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@AllArgsConstructor
 public abstract class RconChannelInitializer extends ChannelInitializer<Channel> {
 
+	/**
+	 * Defines the default read timeout (in milliseconds).
+	 */
+	public static final long DEFAULT_READ_TIMEOUT = TimeUnit.SECONDS.toMillis (120);
+
 	/**
 	 * Stores the codec configuration.
 	 */
 	@Getter
-	@Setter
-	@NonNull
 	private ICodecConfiguration codecConfiguration;
 
 	/**
 	 * Stores the event bus.
 	 */
 	@Getter
+	private IEventDispatcher eventBus;
+
+	/**
+	 * Stores the packet codec (which is shared between all channels).
+	 */
+	@Getter
+	private RconCodec codec;
+
+	/**
+	 * Indicates whether frames are passed to the protocol codec as slices instead of copies.
+	 */
+	@Getter
+	@Setter
+	private boolean zeroCopyFrames = true;
+
+	/**
+	 * Indicates whether frames and packets are decoded by a single {@link FramedRconCodec} stage.
+	 */
+	@Getter
+	@Setter
+	private boolean fusedDecoder = false;
+
+	/**
+	 * Stores the maximum frame size.
+	 */
+	@Getter
+	@Setter
+	private int maximumFrameSize = FrameCodec.DEFAULT_MAXIMUM_FRAME_SIZE;
+
+	/**
+	 * Stores the timeout manager (which enforces the read, write and session timeouts of all channels).
+	 */
+	@Getter
 	@Setter
 	@NonNull
-	private EventBus eventBus;
+	private TimeoutManager timeoutManager = new TimeoutManager (DEFAULT_READ_TIMEOUT, 0, 0);
+
+	/**
+	 * Constructs a new RconChannelInitializer instance.
+	 * @param codecConfiguration The codec configuration.
+	 * @param eventBus The event bus.
+	 */
+	public RconChannelInitializer (@NonNull ICodecConfiguration codecConfiguration, @NonNull IEventDispatcher eventBus) {
+		this.codecConfiguration = codecConfiguration;
+		this.eventBus = eventBus;
+		this.codec = new RconCodec (codecConfiguration, eventBus);
+	}
+
+	/**
+	 * Sets the codec configuration.
+	 * @param codecConfiguration The codec configuration.
+	 */
+	public void setCodecConfiguration (@NonNull ICodecConfiguration codecConfiguration) {
+		this.codecConfiguration = codecConfiguration;
+		this.codec = new RconCodec (codecConfiguration, this.eventBus);
+	}
+
+	/**
+	 * Sets the event bus.
+	 * @param eventBus The event bus.
+	 */
+	public void setEventBus (@NonNull IEventDispatcher eventBus) {
+		this.eventBus = eventBus;
+		this.codec = new RconCodec (this.codecConfiguration, eventBus);
+	}
 
 	/**
 	 * Returns the channel handler.
@@ -64,14 +127,19 @@ public abstract class RconChannelInitializer extends ChannelInitializer<Channel>
 	 */
 	@Override
 	protected void initChannel (Channel serverChannel) throws Exception {
-		// read timeout
-		serverChannel.pipeline ().addLast ("readTimeoutHandler", new ReadTimeoutHandler (120, TimeUnit.SECONDS));
+		// timeouts
+		if (this.timeoutManager.isEnabled ()) serverChannel.pipeline ().addLast ("timeoutHandler", this.timeoutManager.newHandler ());
 
-		// add frame codec
-		serverChannel.pipeline ().addLast ("frameCodec", FrameCodec.getInstance ());
+		if (this.fusedDecoder) {
+			// add combined frame and packet decoder
+			serverChannel.pipeline ().addLast ("frameCodec", new FramedRconCodec (this.codec, this.maximumFrameSize));
+		} else {
+			// add frame codec
+			serverChannel.pipeline ().addLast ("frameCodec", new FrameCodec (this.zeroCopyFrames, this.maximumFrameSize));
+		}
 
-		// add protocol codec
-		serverChannel.pipeline ().addLast ("protocol", new RconCodec (this.codecConfiguration, this.eventBus));
+		// add protocol codec (encodes all outbound packets and decodes frames passed by a separate frame codec)
+		serverChannel.pipeline ().addLast ("protocol", this.codec);
 
 		// add handler
 		serverChannel.pipeline ().addLast ("handler", this.getHandler ());
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.evilco.network.rcon.common.protocol;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.ChannelHandler;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages the idle and lifetime deadlines of connections.
+ * All deadlines are tracked by a single hashed wheel timer (which is shared between all managers unless a timer is
+ * passed explicitly) instead of per-channel tasks on the event loops. Deadlines are only re-armed once they expire,
+ * thus reads and writes merely record a timestamp.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@Getter
+public class TimeoutManager {
+
+	/**
+	 * Defines the tick duration of the shared timer (in milliseconds).
+	 */
+	public static final long SHARED_TIMER_TICK_DURATION = 100;
+
+	/**
+	 * Stores the shared timer (created on demand).
+	 */
+	private static Timer sharedTimer = null;
+
+	/**
+	 * Stores the timer.
+	 */
+	private final Timer timer;
+
+	/**
+	 * Stores the time in milliseconds after which connections without inbound traffic are closed (or 0 to disable the
+	 * timeout).
+	 */
+	private final long readTimeout;
+
+	/**
+	 * Stores the time in milliseconds after which connections without outbound traffic are closed (or 0 to disable the
+	 * timeout).
+	 */
+	private final long writeTimeout;
+
+	/**
+	 * Stores the time in milliseconds after which connections are closed regardless of their traffic (or 0 to disable
+	 * the timeout).
+	 */
+	private final long sessionTimeout;
+
+	/**
+	 * Constructs a new TimeoutManager instance which uses the shared timer.
+	 * @param readTimeout The read timeout in milliseconds (or 0).
+	 * @param writeTimeout The write timeout in milliseconds (or 0).
+	 * @param sessionTimeout The session timeout in milliseconds (or 0).
+	 */
+	public TimeoutManager (long readTimeout, long writeTimeout, long sessionTimeout) {
+		this (getSharedTimer (), readTimeout, writeTimeout, sessionTimeout);
+	}
+
+	/**
+	 * Constructs a new TimeoutManager instance.
+	 * @param timer The timer.
+	 * @param readTimeout The read timeout in milliseconds (or 0).
+	 * @param writeTimeout The write timeout in milliseconds (or 0).
+	 * @param sessionTimeout The session timeout in milliseconds (or 0).
+	 */
+	public TimeoutManager (@NonNull Timer timer, long readTimeout, long writeTimeout, long sessionTimeout) {
+		Preconditions.checkArgument ((readTimeout >= 0 && writeTimeout >= 0 && sessionTimeout >= 0), "Timeouts cannot be negative.");
+
+		this.timer = timer;
+		this.readTimeout = readTimeout;
+		this.writeTimeout = writeTimeout;
+		this.sessionTimeout = sessionTimeout;
+	}
+
+	/**
+	 * Returns the shared timer.
+	 * The timer uses a single daemon thread which is started once the first deadline is scheduled.
+	 * @return The timer.
+	 */
+	public static synchronized Timer getSharedTimer () {
+		if (sharedTimer == null) sharedTimer = new HashedWheelTimer ((new ThreadFactoryBuilder ()).setNameFormat ("rcon-timeout-%d").setDaemon (true).build (), SHARED_TIMER_TICK_DURATION, TimeUnit.MILLISECONDS);
+		return sharedTimer;
+	}
+
+	/**
+	 * Indicates whether any timeout is enabled.
+	 * @return True if connections are subject to at least one deadline.
+	 */
+	public boolean isEnabled () {
+		return (this.readTimeout > 0 || this.writeTimeout > 0 || this.sessionTimeout > 0);
+	}
+
+	/**
+	 * Creates a new handler which enforces the timeouts of a single connection.
+	 * @return The handler.
+	 */
+	public ChannelHandler newHandler () {
+		return (new ConnectionTimeoutHandler (this));
+	}
+
+	/**
+	 * Schedules a task.
+	 * @param task The task.
+	 * @param delay The delay in nanoseconds.
+	 * @return The timeout.
+	 */
+	public Timeout schedule (@NonNull TimerTask task, long delay) {
+		return this.timer.newTimeout (task, delay, TimeUnit.NANOSECONDS);
+	}
+}
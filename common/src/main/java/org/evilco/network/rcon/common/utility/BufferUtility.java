@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.utility;
+
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+
+/**
+ * Provides methods for encoding and decoding strings directly from and to buffers.
+ * Pure ASCII content is handled without intermediate byte arrays (direct buffers are bulk copied into a reused array
+ * first) while any other content falls back to the US-ASCII charset (which replaces unmappable characters the same way
+ * {@link String#getBytes(java.nio.charset.Charset)} does).
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public final class BufferUtility {
+
+	/**
+	 * Defines the size of the per-thread array direct buffers are copied into (larger strings use a temporary array).
+	 */
+	public static final int SCRATCH_SIZE = 4096;
+
+	/**
+	 * Stores a reusable array per thread.
+	 */
+	private static final ThreadLocal<byte[]> scratch = new ThreadLocal<byte[]> () {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected byte[] initialValue () {
+			return new byte[SCRATCH_SIZE];
+		}
+	};
+
+	/**
+	 * Private Constructor
+	 */
+	private BufferUtility () { }
+
+	/**
+	 * Reads an ASCII string.
+	 * @param buffer The buffer.
+	 * @param length The amount of bytes to read.
+	 * @return The string.
+	 */
+	@SuppressWarnings ("deprecation")
+	public static String readAscii (@NonNull ByteBuf buffer, int length) {
+		// skip empty strings
+		if (length == 0) return "";
+
+		// get index
+		int index = buffer.readerIndex ();
+
+		// decode heap buffers in place
+		String value = null;
+
+		if (buffer.hasArray ()) {
+			byte[] array = buffer.array ();
+			int offset = (buffer.arrayOffset () + index);
+
+			if (isAscii (array, offset, length)) value = new String (array, 0, offset, length);
+		} else {
+			// copy direct buffers into a reused array
+			byte[] array = (length <= SCRATCH_SIZE ? scratch.get () : new byte[length]);
+			buffer.getBytes (index, array, 0, length);
+
+			if (isAscii (array, 0, length)) value = new String (array, 0, 0, length);
+		}
+
+		// fall back to charset
+		if (value == null) value = buffer.toString (index, length, Charsets.US_ASCII);
+
+		// update index
+		buffer.skipBytes (length);
+		return value;
+	}
+
+	/**
+	 * Writes an ASCII string.
+	 * @param buffer The buffer.
+	 * @param sequence The string.
+	 */
+	public static void writeAscii (@NonNull ByteBuf buffer, @NonNull CharSequence sequence) {
+		// get length
+		int length = sequence.length ();
+
+		// ensure buffer is writable
+		buffer.ensureWritable (length);
+
+		// write characters
+		int index = buffer.writerIndex ();
+
+		if (buffer.hasArray ()) {
+			byte[] array = buffer.array ();
+			int offset = (buffer.arrayOffset () + index);
+
+			for (int i = 0; i < length; i++) {
+				char current = sequence.charAt (i);
+
+				if (current >= 0x80) {
+					writeFallback (buffer, sequence);
+					return;
+				}
+
+				array[offset + i] = ((byte) current);
+			}
+		} else {
+			for (int i = 0; i < length; i++) {
+				char current = sequence.charAt (i);
+
+				if (current >= 0x80) {
+					writeFallback (buffer, sequence);
+					return;
+				}
+
+				buffer.setByte ((index + i), current);
+			}
+		}
+
+		// update index
+		buffer.writerIndex ((index + length));
+	}
+
+	/**
+	 * Checks whether a byte array section consists of ASCII characters only.
+	 * @param array The array.
+	 * @param offset The offset.
+	 * @param length The length.
+	 * @return True if all bytes are ASCII.
+	 */
+	private static boolean isAscii (byte[] array, int offset, int length) {
+		for (int i = offset; i < (offset + length); i++) {
+			if (array[i] < 0) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Writes a string through the US-ASCII charset.
+	 * @param buffer The buffer.
+	 * @param sequence The string.
+	 */
+	private static void writeFallback (ByteBuf buffer, CharSequence sequence) {
+		buffer.writeBytes (sequence.toString ().getBytes (Charsets.US_ASCII));
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.utility;
+
+/**
+ * Provides access to the object pooling configuration.
+ * Pooling is disabled by default and may be enabled by setting the system property
+ * {@code org.evilco.network.rcon.pooling} to {@code true}.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public final class PoolingUtility {
+
+	/**
+	 * Defines the name of the system property which enables pooling.
+	 */
+	public static final String PROPERTY_NAME = "org.evilco.network.rcon.pooling";
+
+	/**
+	 * Indicates whether packet wrappers and events are recycled.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean (PROPERTY_NAME);
+
+	/**
+	 * Private Constructor
+	 */
+	private PoolingUtility () { }
+}
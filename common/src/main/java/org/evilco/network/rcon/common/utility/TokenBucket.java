@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.common.utility;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides a lock-free token bucket.
+ * The bucket holds up to {@code capacity} tokens and is refilled with {@code capacity} tokens per period. Instead of
+ * counting tokens the bucket stores the (theoretical) time at which it will be full again which allows its state to be
+ * updated with a single compare-and-set operation.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class TokenBucket {
+
+	/**
+	 * Stores the bucket capacity.
+	 */
+	@Getter
+	private final int capacity;
+
+	/**
+	 * Stores the amount of nanoseconds it takes to refill a single token.
+	 */
+	private final long interval;
+
+	/**
+	 * Stores the amount of nanoseconds it takes to refill the entire bucket.
+	 */
+	private final long period;
+
+	/**
+	 * Stores the time (in nanoseconds) at which the bucket will be full again.
+	 */
+	private final AtomicLong refillTime;
+
+	/**
+	 * Constructs a new TokenBucket instance.
+	 * @param capacity The capacity.
+	 * @param period The refill period.
+	 * @param unit The refill period unit.
+	 */
+	public TokenBucket (int capacity, long period, @NonNull TimeUnit unit) {
+		Preconditions.checkArgument ((capacity > 0), "The capacity needs to be positive.");
+		Preconditions.checkArgument ((period > 0), "The period needs to be positive.");
+
+		this.capacity = capacity;
+		this.period = unit.toNanos (period);
+		this.interval = Math.max (1, (this.period / capacity));
+		this.refillTime = new AtomicLong (System.nanoTime ());
+	}
+
+	/**
+	 * Indicates whether the bucket is full.
+	 * @param now The current time (as returned by {@link System#nanoTime()}).
+	 * @return True if the bucket is full.
+	 */
+	public boolean isFull (long now) {
+		return (this.refillTime.get () - now <= 0);
+	}
+
+	/**
+	 * Indicates whether the bucket is empty.
+	 * @param now The current time (as returned by {@link System#nanoTime()}).
+	 * @return True if no tokens are available.
+	 */
+	public boolean isEmpty (long now) {
+		return (this.getNextRefillTime (this.refillTime.get (), now) - now > this.period);
+	}
+
+	/**
+	 * Calculates the refill time after taking a token.
+	 * @param refillTime The current refill time.
+	 * @param now The current time.
+	 * @return The refill time.
+	 */
+	private long getNextRefillTime (long refillTime, long now) {
+		return ((refillTime - now < 0 ? now : refillTime) + this.interval);
+	}
+
+	/**
+	 * Attempts to take a token from the bucket.
+	 * @return True if a token was available.
+	 */
+	public boolean tryAcquire () {
+		return this.tryAcquire (System.nanoTime ());
+	}
+
+	/**
+	 * Attempts to take a token from the bucket.
+	 * @param now The current time (as returned by {@link System#nanoTime()}).
+	 * @return True if a token was available.
+	 */
+	public boolean tryAcquire (long now) {
+		while (true) {
+			long refillTime = this.refillTime.get ();
+			long nextRefillTime = this.getNextRefillTime (refillTime, now);
+
+			// check for tokens
+			if (nextRefillTime - now > this.period) return false;
+
+			// take token
+			if (this.refillTime.compareAndSet (refillTime, nextRefillTime)) return true;
+		}
+	}
+}
@@ -15,15 +15,42 @@
 
 package org.evilco.network.rcon.server;
 
-import com.google.common.eventbus.EventBus;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.MoreExecutors;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.ChannelGroupFuture;
+import io.netty.channel.group.ChannelGroupFutureListener;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.ScheduledFuture;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
+import org.evilco.network.rcon.common.event.dispatcher.SimpleEventDispatcher;
+import org.evilco.network.rcon.common.protocol.RconChannelInitializer;
+import org.evilco.network.rcon.common.protocol.TimeoutManager;
 import org.evilco.network.rcon.server.command.ICommandRegistry;
 import org.evilco.network.rcon.server.command.SimpleCommandRegistry;
+import org.evilco.network.rcon.server.protocol.AdmissionController;
+import org.evilco.network.rcon.server.protocol.ConnectionLimiter;
+import org.evilco.network.rcon.server.protocol.ServerShutdownEvent;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
@@ -31,6 +58,12 @@ import org.evilco.network.rcon.server.command.SimpleCommandRegistry;
  */
 public abstract class AbstractRconServer implements IRconServer {
 
+	/**
+	 * Defines the default amount of milliseconds granted to connections in order to complete their commands during a
+	 * shutdown.
+	 */
+	public static final long DEFAULT_SHUTDOWN_TIMEOUT = 15000;
+
 	/**
 	 * Stores the server bootstrap.
 	 */
@@ -41,7 +74,12 @@ public abstract class AbstractRconServer implements IRconServer {
 	 * Stores the event bus.
 	 */
 	@Getter
-	private EventBus eventBus;
+	private IEventDispatcher eventBus;
+
+	/**
+	 * Indicates whether the event bus has been created by the server (and is thus shut down along with it).
+	 */
+	private boolean eventBusOwned = false;
 
 	/**
 	 * Stores the registry.
@@ -50,17 +88,87 @@ public abstract class AbstractRconServer implements IRconServer {
 	private ICommandRegistry commandRegistry;
 
 	/**
-	 * Stores the boss group.
+	 * Stores the server configuration.
+	 */
+	@Getter
+	private final RconServerConfig configuration;
+
+	/**
+	 * Stores the connection limiter (or null if connections are not limited per address).
+	 */
+	@Getter
+	private final ConnectionLimiter connectionLimiter;
+
+	/**
+	 * Stores the timeout manager.
+	 */
+	@Getter
+	private final TimeoutManager timeoutManager;
+
+	/**
+	 * Stores the admission controller.
+	 */
+	@Getter
+	private final AdmissionController admissionController;
+
+	/**
+	 * Stores the command executor.
+	 * Commands are executed on the I/O thread of their connection by default. Blocking commands should be executed on
+	 * a separate executor (such as a bounded thread pool) instead.
+	 */
+	@Getter
+	@Setter
+	@NonNull
+	private Executor commandExecutor = MoreExecutors.directExecutor ();
+
+	/**
+	 * Stores the maximum amount of commands which are executed concurrently per connection.
+	 */
+	@Getter
+	private int maximumPipelinedCommands = 1;
+
+	/**
+	 * Indicates whether responses to pipelined commands are sent in request order.
+	 * Clients which correlate responses by their identifier may disable ordering to receive each response as soon as
+	 * its command completes.
+	 */
+	@Getter
+	@Setter
+	private boolean orderedResponses = true;
+
+	/**
+	 * Stores the boss group (or null if the server has not been started yet).
 	 */
 	@Getter
 	private EventLoopGroup groupBoss;
 
 	/**
-	 * Stores the worker group.
+	 * Stores the worker group (or null if the server has not been started yet).
 	 */
 	@Getter
 	private EventLoopGroup groupWorker;
 
+	/**
+	 * Stores all connected client channels.
+	 */
+	@Getter
+	private final ChannelGroup channels = new DefaultChannelGroup ("clients", GlobalEventExecutor.INSTANCE);
+
+	/**
+	 * Stores all bound acceptor channels.
+	 */
+	private final ChannelGroup serverChannels = new DefaultChannelGroup ("acceptors", GlobalEventExecutor.INSTANCE);
+
+	/**
+	 * Indicates whether the server has been started.
+	 */
+	private boolean started = false;
+
+	/**
+	 * Stores the shutdown future (or null if the server has not been stopped yet).
+	 */
+	private volatile Future<Void> terminationFuture = null;
+
 	@Getter
 	@Setter
 	@NonNull
@@ -71,16 +179,47 @@ public abstract class AbstractRconServer implements IRconServer {
 	 * @param password The server password.
 	 */
 	public AbstractRconServer (@NonNull String password) {
-		this ((new EventBus ()), password);
+		this ((new SimpleEventDispatcher ()), password);
+		this.eventBusOwned = true;
+	}
+
+	/**
+	 * Constructs a new AbstractRconServer instance.
+	 * @param password The server password.
+	 * @param configuration The server configuration.
+	 */
+	public AbstractRconServer (@NonNull String password, @NonNull RconServerConfig configuration) {
+		this ((new SimpleEventDispatcher ()), password, configuration);
+		this.eventBusOwned = true;
+	}
+
+	/**
+	 * Constructs a new AbstractRconServer instance.
+	 * @param eventBus The event bus.
+	 * @param password The server password.
+	 */
+	public AbstractRconServer (@NonNull IEventDispatcher eventBus, @NonNull String password) {
+		this (eventBus, password, RconServerConfig.DEFAULT);
+	}
+
+	/**
+	 * Constructs a new AbstractRconServer instance.
+	 * @param eventBus The event bus.
+	 * @param password The server password.
+	 * @param configuration The server configuration.
+	 */
+	public AbstractRconServer (@NonNull IEventDispatcher eventBus, @NonNull String password, @NonNull RconServerConfig configuration) {
+		this (eventBus, new SimpleCommandRegistry (eventBus), password, configuration);
 	}
 
 	/**
 	 * Constructs a new AbstractRconServer instance.
 	 * @param eventBus The event bus.
+	 * @param registry The command registry.
 	 * @param password The server password.
 	 */
-	public AbstractRconServer (@NonNull EventBus eventBus, @NonNull String password) {
-		this (eventBus, new SimpleCommandRegistry (eventBus), password);
+	public AbstractRconServer (@NonNull IEventDispatcher eventBus, @NonNull ICommandRegistry registry, @NonNull String password) {
+		this (eventBus, registry, password, RconServerConfig.DEFAULT);
 	}
 
 	/**
@@ -88,29 +227,64 @@ public abstract class AbstractRconServer implements IRconServer {
 	 * @param eventBus The event bus.
 	 * @param registry The command registry.
 	 * @param password The server password.
+	 * @param configuration The server configuration.
 	 */
-	public AbstractRconServer (@NonNull EventBus eventBus, @NonNull ICommandRegistry registry, @NonNull String password) {
+	public AbstractRconServer (@NonNull IEventDispatcher eventBus, @NonNull ICommandRegistry registry, @NonNull String password, @NonNull RconServerConfig configuration) {
 		// store arguments
 		this.eventBus = eventBus;
 		this.commandRegistry = registry;
 		this.password = password;
+		this.configuration = configuration;
+		this.connectionLimiter = (configuration.isAddressLimitEnabled () ? new ConnectionLimiter (configuration) : null);
+		this.timeoutManager = new TimeoutManager ((configuration.getTimer () != null ? configuration.getTimer () : TimeoutManager.getSharedTimer ()), configuration.getReadTimeout (), configuration.getWriteTimeout (), configuration.getSessionTimeout ());
+		this.admissionController = new AdmissionController (configuration, this.timeoutManager);
 
-		// create groups
-		this.groupBoss = this.createEventLoopGroup ();
-		this.groupWorker = this.createEventLoopGroup ();
-
-		// create bootstrap
+		// create bootstrap (groups are assigned once the server starts)
 		this.bootstrap = new ServerBootstrap ();
 
-		// set groups
-		this.bootstrap.group (this.groupBoss, this.groupWorker);
-
 		// set properties
 		this.bootstrap.channel (this.getChannelType ());
-		this.bootstrap.childHandler (this.createChannelInitializer ());
 
-		this.bootstrap.option (ChannelOption.SO_BACKLOG, 128);
-		this.bootstrap.childOption (ChannelOption.SO_KEEPALIVE, true);
+		ChannelInitializer<Channel> initializer = this.createChannelInitializer ();
+
+		if (initializer instanceof RconChannelInitializer) {
+			((RconChannelInitializer) initializer).setTimeoutManager (this.timeoutManager);
+			((RconChannelInitializer) initializer).setMaximumFrameSize (configuration.getMaximumFrameSize ());
+		}
+
+		this.bootstrap.childHandler (initializer);
+		if (this.connectionLimiter != null) this.bootstrap.handler (this.connectionLimiter);
+		this.configureBootstrap (this.bootstrap, configuration);
+	}
+
+	/**
+	 * Sets the maximum amount of commands which are executed concurrently per connection.
+	 * @param maximumPipelinedCommands The amount of commands.
+	 */
+	public void setMaximumPipelinedCommands (int maximumPipelinedCommands) {
+		Preconditions.checkArgument ((maximumPipelinedCommands > 0), "At least one command needs to be executed per connection.");
+		this.maximumPipelinedCommands = maximumPipelinedCommands;
+	}
+
+	/**
+	 * Applies the server configuration to the bootstrap.
+	 * Implementations which use sockets extend this method in order to apply socket specific options.
+	 * @param bootstrap The bootstrap.
+	 * @param configuration The server configuration.
+	 */
+	protected void configureBootstrap (@NonNull ServerBootstrap bootstrap, @NonNull RconServerConfig configuration) {
+		// set allocator
+		bootstrap.option (ChannelOption.ALLOCATOR, configuration.getAllocator ());
+		bootstrap.childOption (ChannelOption.ALLOCATOR, configuration.getAllocator ());
+
+		// set water marks (ordered so that the low water mark never exceeds the high water mark in between)
+		if (configuration.getWriteBufferLowWaterMark () <= RconServerConfig.DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK) {
+			bootstrap.childOption (ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, configuration.getWriteBufferLowWaterMark ());
+			bootstrap.childOption (ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, configuration.getWriteBufferHighWaterMark ());
+		} else {
+			bootstrap.childOption (ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, configuration.getWriteBufferHighWaterMark ());
+			bootstrap.childOption (ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, configuration.getWriteBufferLowWaterMark ());
+		}
 	}
 
 	/**
@@ -127,26 +301,261 @@ public abstract class AbstractRconServer implements IRconServer {
 
 	/**
 	 * Creates an event loop group.
+	 * @param threads The amount of threads (or 0 to use the transport's default).
 	 * @return The event loop group.
 	 */
-	public abstract EventLoopGroup createEventLoopGroup ();
+	public abstract EventLoopGroup createEventLoopGroup (int threads);
 
 	/**
-	 * Starts listening.
+	 * Starts listening and blocks until the server is stopped.
 	 * @param address The address.
 	 * @param port The port.
 	 * @throws InterruptedException Occurs if something goes horribly wrong.
 	 */
 	public void listen (String address, int port) throws InterruptedException {
+		Future<Void> future = this.start (new InetSocketAddress (address, port));
+
 		try {
-			// start listening
-			ChannelFuture future = this.bootstrap.bind (address, port).sync ();
+			// wait for all acceptors
+			future.sync ();
 
 			// close server
-			future.channel ().closeFuture ().sync ();
+			for (Channel channel : this.serverChannels) channel.closeFuture ().sync ();
 		} finally {
-			if (this.groupWorker != null) this.groupWorker.shutdownGracefully ();
-			if (this.groupBoss != null) this.groupBoss.shutdownGracefully ();
+			this.stop ();
+		}
+	}
+
+	/**
+	 * Starts listening on one or more addresses without blocking.
+	 * If any of the addresses cannot be bound, the returned future fails and all other acceptors are closed again.
+	 * Servers cannot be restarted once they have been stopped.
+	 * @param addresses The addresses.
+	 * @return A future which completes once all addresses have been bound.
+	 */
+	public synchronized Future<Void> start (@NonNull SocketAddress... addresses) {
+		Preconditions.checkArgument ((addresses.length > 0), "At least one address is required.");
+		Preconditions.checkState ((this.terminationFuture == null), "The server has been stopped and cannot be restarted.");
+		Preconditions.checkState (!this.started, "The server has already been started.");
+
+		// start listening
+		this.started = true;
+		this.initializeGroups ();
+
+		final Promise<Void> promise = GlobalEventExecutor.INSTANCE.newPromise ();
+		List<ChannelFuture> futures = new ArrayList<ChannelFuture> ();
+
+		for (SocketAddress address : addresses) {
+			for (ChannelFuture future : this.bind (address)) {
+				// register acceptor
+				future.addListener (new ChannelFutureListener () {
+
+					/**
+					 * {@inheritDoc}
+					 */
+					@Override
+					public void operationComplete (ChannelFuture future) throws Exception {
+						if (!future.isSuccess ()) return;
+						AbstractRconServer.this.serverChannels.add (future.channel ());
+
+						// close acceptors which have been bound after the server was stopped or another bind failed
+						if (AbstractRconServer.this.terminationFuture != null || (promise.isDone () && !promise.isSuccess ())) future.channel ().close ();
+					}
+				});
+
+				futures.add (future);
+			}
 		}
+
+		// close all acceptors if an address cannot be bound
+		promise.addListener (new FutureListener<Void> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void operationComplete (Future<Void> future) throws Exception {
+				if (!future.isSuccess ()) AbstractRconServer.this.serverChannels.close ();
+			}
+		});
+
+		return aggregate (futures, promise);
+	}
+
+	/**
+	 * Binds one or more acceptor channels to an address.
+	 * @param address The address.
+	 * @return The bind futures.
+	 */
+	protected List<ChannelFuture> bind (@NonNull SocketAddress address) {
+		return Collections.singletonList (this.bootstrap.bind (address));
+	}
+
+	/**
+	 * Gracefully stops the server using the default timeout.
+	 * @return A future which completes once the server has been shut down.
+	 */
+	public Future<Void> stop () {
+		return this.stop (DEFAULT_SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Gracefully stops the server.
+	 * The server stops accepting connections immediately. Connected clients cannot issue further commands while all
+	 * queued and executing commands are completed and their responses are flushed before the connections are closed.
+	 * Connections which are still busy once the timeout elapses are closed forcefully. Asynchronous event delivery of
+	 * an event bus which has been created by the server is drained and event loop groups which are owned by the server
+	 * are shut down afterwards (event buses which have been passed to the server need to be shut down by their owner).
+	 * @param timeout The timeout.
+	 * @param unit The timeout unit.
+	 * @return A future which completes once the server has been shut down.
+	 */
+	public synchronized Future<Void> stop (final long timeout, @NonNull final TimeUnit unit) {
+		// skip repeated calls
+		if (this.terminationFuture != null) return this.terminationFuture;
+
+		final Promise<Void> promise = GlobalEventExecutor.INSTANCE.newPromise ();
+		this.terminationFuture = promise;
+
+		// stop accepting connections
+		this.serverChannels.close ().addListener (new ChannelGroupFutureListener () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void operationComplete (ChannelGroupFuture future) throws Exception {
+				AbstractRconServer.this.drainChannels (timeout, unit, promise);
+			}
+		});
+
+		return promise;
+	}
+
+	/**
+	 * Waits for all connections to complete their commands and shuts down the event loop groups afterwards.
+	 * @param timeout The timeout.
+	 * @param unit The timeout unit.
+	 * @param promise The shutdown promise.
+	 */
+	private void drainChannels (final long timeout, final TimeUnit unit, final Promise<Void> promise) {
+		List<Future<?>> futures = new ArrayList<Future<?>> ();
+
+		for (Channel channel : this.channels) {
+			channel.pipeline ().fireUserEventTriggered (ServerShutdownEvent.INSTANCE);
+			futures.add (channel.closeFuture ());
+		}
+
+		// close busy connections forcefully
+		final ScheduledFuture<?> deadline = GlobalEventExecutor.INSTANCE.schedule (new Runnable () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void run () {
+				AbstractRconServer.this.channels.close ();
+			}
+		}, timeout, unit);
+
+		// shut down groups
+		aggregate (futures, GlobalEventExecutor.INSTANCE.<Void>newPromise ()).addListener (new FutureListener<Void> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void operationComplete (Future<Void> future) throws Exception {
+				deadline.cancel (false);
+
+				// deliver remaining events (all connections are closed and cannot post further events)
+				AbstractRconServer.this.shutdownEventBus (timeout, unit).addListener (new FutureListener<Object> () {
+
+					/**
+					 * {@inheritDoc}
+					 */
+					@Override
+					public void operationComplete (Future<Object> future) throws Exception {
+						aggregate (AbstractRconServer.this.shutdownGroups (), promise);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Shuts down asynchronous event delivery if the event bus has been created by the server.
+	 * @param timeout The timeout.
+	 * @param unit The timeout unit.
+	 * @return A future which completes once event delivery has stopped.
+	 */
+	protected Future<?> shutdownEventBus (long timeout, @NonNull TimeUnit unit) {
+		if (!this.eventBusOwned || !(this.eventBus instanceof SimpleEventDispatcher)) return GlobalEventExecutor.INSTANCE.newSucceededFuture (null);
+		return ((SimpleEventDispatcher) this.eventBus).shutdown (timeout, unit);
+	}
+
+	/**
+	 * Completes a promise once all passed futures have succeeded or fails it as soon as one of them fails.
+	 * @param futures The futures.
+	 * @param promise The promise.
+	 * @return The promise.
+	 */
+	@SuppressWarnings ("unchecked")
+	private static Promise<Void> aggregate (@NonNull Collection<? extends Future<?>> futures, @NonNull final Promise<Void> promise) {
+		if (futures.isEmpty ()) {
+			promise.trySuccess (null);
+			return promise;
+		}
+
+		final AtomicInteger remaining = new AtomicInteger (futures.size ());
+
+		FutureListener<Object> listener = new FutureListener<Object> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void operationComplete (Future<Object> future) throws Exception {
+				if (!future.isSuccess ())
+					promise.tryFailure (future.cause ());
+				else if (remaining.decrementAndGet () == 0)
+					promise.trySuccess (null);
+			}
+		};
+
+		for (Future<?> future : futures) ((Future<Object>) future).addListener (listener);
+		return promise;
+	}
+
+	/**
+	 * Assigns the event loop groups to the bootstrap.
+	 * Groups which have been passed through the server configuration are shared as is while all other groups are
+	 * created on demand (thus servers which are never started do not allocate any threads or selectors).
+	 */
+	protected synchronized void initializeGroups () {
+		// skip initialized groups
+		if (this.groupBoss != null) return;
+
+		// create groups
+		this.groupBoss = (this.configuration.getBossGroup () != null ? this.configuration.getBossGroup () : this.createEventLoopGroup (this.configuration.getBossThreads ()));
+		this.groupWorker = (this.configuration.getWorkerGroup () != null ? this.configuration.getWorkerGroup () : this.createEventLoopGroup (this.configuration.getWorkerThreads ()));
+
+		// set groups
+		this.bootstrap.group (this.groupBoss, this.groupWorker);
+	}
+
+	/**
+	 * Shuts down all event loop groups which are owned by this server.
+	 * Shared groups (which have been passed through the server configuration) are left running. Groups are shut down
+	 * without a quiet period since all connections have been drained beforehand.
+	 * @return The termination futures of all groups which are shut down.
+	 */
+	protected synchronized List<Future<?>> shutdownGroups () {
+		List<Future<?>> futures = new ArrayList<Future<?>> ();
+
+		if (this.groupWorker != null && this.groupWorker != this.configuration.getWorkerGroup ()) futures.add (this.groupWorker.shutdownGracefully (0, DEFAULT_SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS));
+		if (this.groupBoss != null && this.groupBoss != this.configuration.getBossGroup ()) futures.add (this.groupBoss.shutdownGracefully (0, DEFAULT_SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS));
+
+		return futures;
 	}
 }
@@ -15,8 +15,13 @@
 
 package org.evilco.network.rcon.server;
 
-import com.google.common.eventbus.EventBus;
+import io.netty.channel.group.ChannelGroup;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
 import org.evilco.network.rcon.server.command.ICommandRegistry;
+import org.evilco.network.rcon.server.protocol.AdmissionController;
+import org.evilco.network.rcon.server.protocol.ConnectionLimiter;
+
+import java.util.concurrent.Executor;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
@@ -24,6 +29,24 @@ import org.evilco.network.rcon.server.command.ICommandRegistry;
  */
 public interface IRconServer {
 
+	/**
+	 * Returns the admission controller which tracks unauthenticated connections.
+	 * @return The controller.
+	 */
+	public AdmissionController getAdmissionController ();
+
+	/**
+	 * Returns the group of connected client channels.
+	 * @return The channel group.
+	 */
+	public ChannelGroup getChannels ();
+
+	/**
+	 * Returns the connection limiter (or null if connections are not limited per address).
+	 * @return The limiter.
+	 */
+	public ConnectionLimiter getConnectionLimiter ();
+
 	/**
 	 * Returns the command registry.
 	 * @return The registry.
@@ -34,11 +57,29 @@ public interface IRconServer {
 	 * Returns the event bus.
 	 * @return The event bus.
 	 */
-	public EventBus getEventBus ();
+	public IEventDispatcher getEventBus ();
+
+	/**
+	 * Returns the executor which runs command handlers.
+	 * @return The executor.
+	 */
+	public Executor getCommandExecutor ();
+
+	/**
+	 * Returns the maximum amount of commands which are executed concurrently per connection.
+	 * @return The amount of commands.
+	 */
+	public int getMaximumPipelinedCommands ();
 
 	/**
 	 * Returns the server password.
 	 * @return The password.
 	 */
 	public String getPassword ();
+
+	/**
+	 * Indicates whether responses to pipelined commands are sent in request order (instead of completion order).
+	 * @return True if responses are ordered.
+	 */
+	public boolean isOrderedResponses ();
 }
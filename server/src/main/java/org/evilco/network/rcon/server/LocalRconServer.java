@@ -15,11 +15,11 @@
 
 package org.evilco.network.rcon.server;
 
-import com.google.common.eventbus.EventBus;
 import io.netty.channel.*;
 import io.netty.channel.local.LocalServerChannel;
 import lombok.NonNull;
 import org.evilco.network.rcon.common.codec.ServerCodecConfiguration;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
 import org.evilco.network.rcon.server.command.ICommandRegistry;
 import org.evilco.network.rcon.server.protocol.ServerChannelInitializer;
 
@@ -37,12 +37,21 @@ public class LocalRconServer extends AbstractRconServer {
 		super (password);
 	}
 
+	/**
+	 * Constructs a new LocalRconServer instance.
+	 * @param password The password.
+	 * @param configuration The server configuration.
+	 */
+	public LocalRconServer (@NonNull String password, @NonNull RconServerConfig configuration) {
+		super (password, configuration);
+	}
+
 	/**
 	 * Constructs a new LocalRconServer instance.
 	 * @param eventBus The event bus.
 	 * @param password The password.
 	 */
-	public LocalRconServer (@NonNull EventBus eventBus, @NonNull String password) {
+	public LocalRconServer (@NonNull IEventDispatcher eventBus, @NonNull String password) {
 		super (eventBus, password);
 	}
 
@@ -52,10 +61,21 @@ public class LocalRconServer extends AbstractRconServer {
 	 * @param registry The registry.
 	 * @param password The password.
 	 */
-	public LocalRconServer (@NonNull EventBus eventBus, @NonNull ICommandRegistry registry, @NonNull String password) {
+	public LocalRconServer (@NonNull IEventDispatcher eventBus, @NonNull ICommandRegistry registry, @NonNull String password) {
 		super (eventBus, registry, password);
 	}
 
+	/**
+	 * Constructs a new LocalRconServer instance.
+	 * @param eventBus The event bus.
+	 * @param registry The command registry.
+	 * @param password The password.
+	 * @param configuration The server configuration.
+	 */
+	public LocalRconServer (@NonNull IEventDispatcher eventBus, @NonNull ICommandRegistry registry, @NonNull String password, @NonNull RconServerConfig configuration) {
+		super (eventBus, registry, password, configuration);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -76,7 +96,7 @@ public class LocalRconServer extends AbstractRconServer {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public EventLoopGroup createEventLoopGroup () {
-		return (new DefaultEventLoopGroup ());
+	public EventLoopGroup createEventLoopGroup (int threads) {
+		return (new DefaultEventLoopGroup (threads));
 	}
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server;
+
+import com.google.common.base.Preconditions;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
+import org.evilco.network.rcon.server.command.ICommandRegistry;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides a server which uses the native (epoll based) Linux transport.
+ * The native transport is loaded at runtime (it is not a compile time dependency) and the server falls back to the NIO
+ * transport of {@link RemoteRconServer} if it cannot be loaded (for instance on other operating systems). Native
+ * servers may bind multiple acceptor channels to the same port (using {@code SO_REUSEPORT}) in order to spread
+ * accepted connections across cores.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class NativeRconServer extends RemoteRconServer {
+
+	/**
+	 * Stores the internal logger.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (NativeRconServer.class);
+
+	/**
+	 * Defines the package of the native transport.
+	 */
+	public static final String TRANSPORT_PACKAGE = "io.netty.channel.epoll.";
+
+	/**
+	 * Stores the native server channel type (or null if the native transport is unavailable).
+	 */
+	private static final Class<? extends ServerChannel> CHANNEL_TYPE;
+
+	/**
+	 * Stores the native event loop group type (or null if the native transport is unavailable).
+	 */
+	private static final Class<? extends EventLoopGroup> EVENT_LOOP_GROUP_TYPE;
+
+	/**
+	 * Stores the amount of acceptor channels.
+	 */
+	@Getter
+	private int acceptors = 1;
+
+	/**
+	 * Loads the native transport.
+	 */
+	static {
+		Class<? extends ServerChannel> channelType = null;
+		Class<? extends EventLoopGroup> eventLoopGroupType = null;
+
+		try {
+			// verify availability (loads the native library)
+			Class<?> epoll = Class.forName (TRANSPORT_PACKAGE + "Epoll");
+			if (!((Boolean) epoll.getMethod ("isAvailable").invoke (null))) throw ((Throwable) epoll.getMethod ("unavailabilityCause").invoke (null));
+
+			// load types
+			channelType = Class.forName (TRANSPORT_PACKAGE + "EpollServerSocketChannel").asSubclass (ServerChannel.class);
+			eventLoopGroupType = Class.forName (TRANSPORT_PACKAGE + "EpollEventLoopGroup").asSubclass (EventLoopGroup.class);
+		} catch (Throwable ex) {
+			// log
+			getLogger ().debug ("The native transport is not available (falling back to NIO): %s", ex.toString ());
+
+			// reset types
+			channelType = null;
+			eventLoopGroupType = null;
+		}
+
+		CHANNEL_TYPE = channelType;
+		EVENT_LOOP_GROUP_TYPE = eventLoopGroupType;
+	}
+
+	/**
+	 * Constructs a new NativeRconServer instance.
+	 * @param password The password.
+	 */
+	public NativeRconServer (@NonNull String password) {
+		super (password);
+	}
+
+	/**
+	 * Constructs a new NativeRconServer instance.
+	 * @param password The password.
+	 * @param configuration The server configuration.
+	 */
+	public NativeRconServer (@NonNull String password, @NonNull RconServerConfig configuration) {
+		super (password, configuration);
+	}
+
+	/**
+	 * Constructs a new NativeRconServer instance.
+	 * @param eventBus The event bus.
+	 * @param password The password.
+	 */
+	public NativeRconServer (@NonNull IEventDispatcher eventBus, @NonNull String password) {
+		super (eventBus, password);
+	}
+
+	/**
+	 * Constructs a new NativeRconServer instance.
+	 * @param eventBus The event bus.
+	 * @param registry The command registry.
+	 * @param password The password.
+	 */
+	public NativeRconServer (@NonNull IEventDispatcher eventBus, @NonNull ICommandRegistry registry, @NonNull String password) {
+		super (eventBus, registry, password);
+	}
+
+	/**
+	 * Constructs a new NativeRconServer instance.
+	 * @param eventBus The event bus.
+	 * @param registry The command registry.
+	 * @param password The password.
+	 * @param configuration The server configuration.
+	 */
+	public NativeRconServer (@NonNull IEventDispatcher eventBus, @NonNull ICommandRegistry registry, @NonNull String password, @NonNull RconServerConfig configuration) {
+		super (eventBus, registry, password, configuration);
+	}
+
+	/**
+	 * Checks whether the native transport is available.
+	 * @return True if the native transport is used.
+	 */
+	public static boolean isAvailable () {
+		return (CHANNEL_TYPE != null);
+	}
+
+	/**
+	 * Returns a native channel option.
+	 * @param name The option name.
+	 * @return The option or null (if the native transport or option is unavailable).
+	 */
+	@SuppressWarnings ("unchecked")
+	protected static <T> ChannelOption<T> getNativeOption (@NonNull String name) {
+		// skip unavailable transports
+		if (!isAvailable ()) return null;
+
+		try {
+			return ((ChannelOption<T>) Class.forName (TRANSPORT_PACKAGE + "EpollChannelOption").getField (name).get (null));
+		} catch (Exception ex) {
+			// log
+			getLogger ().debug ("The native channel option %s is not available: %s", name, ex.toString ());
+
+			return null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Class<? extends ServerChannel> getChannelType () {
+		return (isAvailable () ? CHANNEL_TYPE : super.getChannelType ());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public EventLoopGroup createEventLoopGroup (int threads) {
+		// fall back to NIO
+		if (!isAvailable ()) return super.createEventLoopGroup (threads);
+
+		try {
+			return EVENT_LOOP_GROUP_TYPE.getConstructor (int.class).newInstance (threads);
+		} catch (Exception ex) {
+			throw new IllegalStateException ("Could not create native event loop group: " + ex.getMessage (), ex);
+		}
+	}
+
+	/**
+	 * Sets the amount of acceptor channels which are bound to the same port.
+	 * Multiple acceptors require the native transport and are ignored otherwise.
+	 * @param acceptors The amount of acceptors.
+	 */
+	public void setAcceptors (int acceptors) {
+		Preconditions.checkArgument ((acceptors > 0), "At least one acceptor is required.");
+
+		// enable port sharing
+		ChannelOption<Boolean> option = getNativeOption ("SO_REUSEPORT");
+		if (option != null) this.getBootstrap ().option (option, (acceptors > 1));
+
+		this.acceptors = acceptors;
+	}
+
+	/**
+	 * Enables or disables quick acknowledgements for client connections.
+	 * This option requires the native transport and is ignored otherwise.
+	 * @param tcpQuickAck True if quick acknowledgements should be enabled.
+	 */
+	public void setTcpQuickAck (boolean tcpQuickAck) {
+		ChannelOption<Boolean> option = getNativeOption ("TCP_QUICKACK");
+		if (option != null) this.getBootstrap ().childOption (option, tcpQuickAck);
+	}
+
+	/**
+	 * Sets the TCP fast open queue length of acceptor channels (or 0 to disable TCP fast open).
+	 * This option requires the native transport and is ignored otherwise.
+	 * @param queueLength The queue length.
+	 */
+	public void setTcpFastOpen (int queueLength) {
+		ChannelOption<Integer> option = getNativeOption ("TCP_FASTOPEN");
+		if (option != null) this.getBootstrap ().option (option, queueLength);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected List<ChannelFuture> bind (@NonNull SocketAddress address) {
+		// bind a single channel
+		if (this.acceptors == 1 || !isAvailable ()) return super.bind (address);
+
+		List<ChannelFuture> futures = new ArrayList<ChannelFuture> ();
+		for (int i = 0; i < this.acceptors; i++) futures.add (this.getBootstrap ().bind (address));
+
+		// log
+		getLogger ().debug ("Binding %s acceptors to %s.", this.acceptors, address);
+
+		return futures;
+	}
+}
@@ -0,0 +1,650 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.Timer;
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.network.rcon.common.codec.FrameCodec;
+import org.evilco.network.rcon.common.protocol.RconChannelInitializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the bootstrap, allocator and threading configuration of a server.
+ * Instances are immutable and created through {@link #builder()}. Socket specific options (such as the backlog or
+ * buffer sizes) are only applied by servers which use sockets. Event loop groups may be shared between multiple
+ * servers in which case their thread counts are ignored and the groups are never shut down by the servers.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@Getter
+public final class RconServerConfig {
+
+	/**
+	 * Defines the default configuration.
+	 */
+	public static final RconServerConfig DEFAULT = builder ().build ();
+
+	/**
+	 * Defines the default backlog.
+	 */
+	public static final int DEFAULT_BACKLOG = 128;
+
+	/**
+	 * Defines the default write buffer high water mark.
+	 */
+	public static final int DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK = (64 * 1024);
+
+	/**
+	 * Defines the default write buffer low water mark.
+	 */
+	public static final int DEFAULT_WRITE_BUFFER_LOW_WATER_MARK = (32 * 1024);
+
+	/**
+	 * Defines the default maximum amount of unauthenticated connections.
+	 */
+	public static final int DEFAULT_MAXIMUM_PENDING_CONNECTIONS = 1024;
+
+	/**
+	 * Defines the default authentication timeout (in milliseconds).
+	 */
+	public static final long DEFAULT_AUTHENTICATION_TIMEOUT = TimeUnit.SECONDS.toMillis (10);
+
+	/**
+	 * Stores the amount of boss threads (or 0 to use the transport's default).
+	 */
+	private final int bossThreads;
+
+	/**
+	 * Stores the amount of worker threads (or 0 to use the transport's default).
+	 */
+	private final int workerThreads;
+
+	/**
+	 * Stores the shared boss group (or null if each server creates its own group).
+	 */
+	private final EventLoopGroup bossGroup;
+
+	/**
+	 * Stores the shared worker group (or null if each server creates its own group).
+	 */
+	private final EventLoopGroup workerGroup;
+
+	/**
+	 * Stores the connection backlog.
+	 */
+	private final int backlog;
+
+	/**
+	 * Indicates whether TCP keep alive is enabled for client connections.
+	 */
+	private final boolean keepAlive;
+
+	/**
+	 * Indicates whether Nagle's algorithm is disabled for client connections.
+	 */
+	private final boolean tcpNoDelay;
+
+	/**
+	 * Stores the socket receive buffer size (or 0 to use the operating system's default).
+	 */
+	private final int receiveBufferSize;
+
+	/**
+	 * Stores the socket send buffer size (or 0 to use the operating system's default).
+	 */
+	private final int sendBufferSize;
+
+	/**
+	 * Stores the write buffer high water mark.
+	 */
+	private final int writeBufferHighWaterMark;
+
+	/**
+	 * Stores the write buffer low water mark.
+	 */
+	private final int writeBufferLowWaterMark;
+
+	/**
+	 * Stores the buffer allocator.
+	 */
+	private final ByteBufAllocator allocator;
+
+	/**
+	 * Stores the read timeout in milliseconds (or 0 to disable the timeout).
+	 */
+	private final long readTimeout;
+
+	/**
+	 * Stores the write timeout in milliseconds (or 0 to disable the timeout).
+	 */
+	private final long writeTimeout;
+
+	/**
+	 * Stores the session timeout in milliseconds (or 0 to disable the timeout).
+	 */
+	private final long sessionTimeout;
+
+	/**
+	 * Stores the timer which tracks connection deadlines (or null to use the shared timer).
+	 */
+	private final Timer timer;
+
+	/**
+	 * Stores the maximum frame size.
+	 */
+	private final int maximumFrameSize;
+
+	/**
+	 * Stores the maximum amount of concurrent connections per client address (or 0 to disable the limit).
+	 */
+	private final int maximumConnectionsPerAddress;
+
+	/**
+	 * Stores the amount of connections which are accepted per client address and connection rate period (or 0 to
+	 * disable the limit).
+	 */
+	private final int connectionRateLimit;
+
+	/**
+	 * Stores the connection rate period in nanoseconds.
+	 */
+	private final long connectionRatePeriod;
+
+	/**
+	 * Stores the amount of authentication attempts which are accepted per client address and authentication rate
+	 * period (or 0 to disable the limit).
+	 */
+	private final int authenticationRateLimit;
+
+	/**
+	 * Stores the authentication rate period in nanoseconds.
+	 */
+	private final long authenticationRatePeriod;
+
+	/**
+	 * Stores the maximum amount of unauthenticated connections (or 0 to disable the limit).
+	 */
+	private final int maximumPendingConnections;
+
+	/**
+	 * Stores the time in milliseconds within which clients need to authenticate (or 0 to disable the timeout).
+	 */
+	private final long authenticationTimeout;
+
+	/**
+	 * Constructs a new RconServerConfig instance.
+	 * @param builder The builder.
+	 */
+	private RconServerConfig (@NonNull Builder builder) {
+		this.bossThreads = builder.bossThreads;
+		this.workerThreads = builder.workerThreads;
+		this.bossGroup = builder.bossGroup;
+		this.workerGroup = builder.workerGroup;
+		this.backlog = builder.backlog;
+		this.keepAlive = builder.keepAlive;
+		this.tcpNoDelay = builder.tcpNoDelay;
+		this.receiveBufferSize = builder.receiveBufferSize;
+		this.sendBufferSize = builder.sendBufferSize;
+		this.writeBufferHighWaterMark = builder.writeBufferHighWaterMark;
+		this.writeBufferLowWaterMark = builder.writeBufferLowWaterMark;
+		this.allocator = builder.allocator;
+		this.readTimeout = builder.readTimeout;
+		this.writeTimeout = builder.writeTimeout;
+		this.sessionTimeout = builder.sessionTimeout;
+		this.timer = builder.timer;
+		this.maximumFrameSize = builder.maximumFrameSize;
+		this.maximumConnectionsPerAddress = builder.maximumConnectionsPerAddress;
+		this.connectionRateLimit = builder.connectionRateLimit;
+		this.connectionRatePeriod = builder.connectionRatePeriod;
+		this.authenticationRateLimit = builder.authenticationRateLimit;
+		this.authenticationRatePeriod = builder.authenticationRatePeriod;
+		this.maximumPendingConnections = builder.maximumPendingConnections;
+		this.authenticationTimeout = builder.authenticationTimeout;
+	}
+
+	/**
+	 * Indicates whether any per address limit is enabled.
+	 * @return True if connections are limited per address.
+	 */
+	public boolean isAddressLimitEnabled () {
+		return (this.maximumConnectionsPerAddress > 0 || this.connectionRateLimit > 0 || this.authenticationRateLimit > 0);
+	}
+
+	/**
+	 * Creates a new builder (which is initialized with the default configuration).
+	 * @return The builder.
+	 */
+	public static Builder builder () {
+		return (new Builder ());
+	}
+
+	/**
+	 * Builds server configurations.
+	 */
+	public static final class Builder {
+
+		/**
+		 * Stores the amount of boss threads.
+		 */
+		private int bossThreads = 0;
+
+		/**
+		 * Stores the amount of worker threads.
+		 */
+		private int workerThreads = 0;
+
+		/**
+		 * Stores the shared boss group.
+		 */
+		private EventLoopGroup bossGroup = null;
+
+		/**
+		 * Stores the shared worker group.
+		 */
+		private EventLoopGroup workerGroup = null;
+
+		/**
+		 * Stores the connection backlog.
+		 */
+		private int backlog = DEFAULT_BACKLOG;
+
+		/**
+		 * Indicates whether TCP keep alive is enabled.
+		 */
+		private boolean keepAlive = true;
+
+		/**
+		 * Indicates whether Nagle's algorithm is disabled.
+		 */
+		private boolean tcpNoDelay = false;
+
+		/**
+		 * Stores the socket receive buffer size.
+		 */
+		private int receiveBufferSize = 0;
+
+		/**
+		 * Stores the socket send buffer size.
+		 */
+		private int sendBufferSize = 0;
+
+		/**
+		 * Stores the write buffer high water mark.
+		 */
+		private int writeBufferHighWaterMark = DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK;
+
+		/**
+		 * Stores the write buffer low water mark.
+		 */
+		private int writeBufferLowWaterMark = DEFAULT_WRITE_BUFFER_LOW_WATER_MARK;
+
+		/**
+		 * Stores the buffer allocator.
+		 */
+		private ByteBufAllocator allocator = UnpooledByteBufAllocator.DEFAULT;
+
+		/**
+		 * Stores the read timeout in milliseconds.
+		 */
+		private long readTimeout = RconChannelInitializer.DEFAULT_READ_TIMEOUT;
+
+		/**
+		 * Stores the write timeout.
+		 */
+		private long writeTimeout = 0;
+
+		/**
+		 * Stores the session timeout.
+		 */
+		private long sessionTimeout = 0;
+
+		/**
+		 * Stores the timer.
+		 */
+		private Timer timer = null;
+
+		/**
+		 * Stores the maximum frame size.
+		 */
+		private int maximumFrameSize = FrameCodec.DEFAULT_MAXIMUM_FRAME_SIZE;
+
+		/**
+		 * Stores the maximum amount of concurrent connections per client address.
+		 */
+		private int maximumConnectionsPerAddress = 0;
+
+		/**
+		 * Stores the amount of connections per client address and period.
+		 */
+		private int connectionRateLimit = 0;
+
+		/**
+		 * Stores the connection rate period in nanoseconds.
+		 */
+		private long connectionRatePeriod = 0;
+
+		/**
+		 * Stores the amount of authentication attempts per client address and period.
+		 */
+		private int authenticationRateLimit = 0;
+
+		/**
+		 * Stores the authentication rate period in nanoseconds.
+		 */
+		private long authenticationRatePeriod = 0;
+
+		/**
+		 * Stores the maximum amount of unauthenticated connections.
+		 */
+		private int maximumPendingConnections = DEFAULT_MAXIMUM_PENDING_CONNECTIONS;
+
+		/**
+		 * Stores the authentication timeout in milliseconds.
+		 */
+		private long authenticationTimeout = DEFAULT_AUTHENTICATION_TIMEOUT;
+
+		/**
+		 * Constructs a new Builder instance.
+		 */
+		private Builder () { }
+
+		/**
+		 * Sets the amount of boss threads (or 0 to use the transport's default).
+		 * @param bossThreads The amount of threads.
+		 * @return The builder.
+		 */
+		public Builder bossThreads (int bossThreads) {
+			Preconditions.checkArgument ((bossThreads >= 0), "The amount of boss threads cannot be negative.");
+
+			this.bossThreads = bossThreads;
+			return this;
+		}
+
+		/**
+		 * Sets the amount of worker threads (or 0 to use the transport's default).
+		 * @param workerThreads The amount of threads.
+		 * @return The builder.
+		 */
+		public Builder workerThreads (int workerThreads) {
+			Preconditions.checkArgument ((workerThreads >= 0), "The amount of worker threads cannot be negative.");
+
+			this.workerThreads = workerThreads;
+			return this;
+		}
+
+		/**
+		 * Sets the event loop groups which are shared with other servers.
+		 * The groups need to match the server's transport (for instance NIO groups for a {@link RemoteRconServer}) and
+		 * are left running when the server shuts down. Netty starts their threads on demand.
+		 * @param bossGroup The boss group.
+		 * @param workerGroup The worker group.
+		 * @return The builder.
+		 */
+		public Builder eventLoopGroups (@NonNull EventLoopGroup bossGroup, @NonNull EventLoopGroup workerGroup) {
+			this.bossGroup = bossGroup;
+			this.workerGroup = workerGroup;
+			return this;
+		}
+
+		/**
+		 * Sets the connection backlog.
+		 * @param backlog The backlog.
+		 * @return The builder.
+		 */
+		public Builder backlog (int backlog) {
+			Preconditions.checkArgument ((backlog > 0), "The backlog needs to be positive.");
+
+			this.backlog = backlog;
+			return this;
+		}
+
+		/**
+		 * Enables or disables TCP keep alive for client connections.
+		 * @param keepAlive True if keep alive should be enabled.
+		 * @return The builder.
+		 */
+		public Builder keepAlive (boolean keepAlive) {
+			this.keepAlive = keepAlive;
+			return this;
+		}
+
+		/**
+		 * Enables or disables Nagle's algorithm for client connections.
+		 * @param tcpNoDelay True if Nagle's algorithm should be disabled.
+		 * @return The builder.
+		 */
+		public Builder tcpNoDelay (boolean tcpNoDelay) {
+			this.tcpNoDelay = tcpNoDelay;
+			return this;
+		}
+
+		/**
+		 * Sets the socket receive buffer size (or 0 to use the operating system's default).
+		 * @param receiveBufferSize The size in bytes.
+		 * @return The builder.
+		 */
+		public Builder receiveBufferSize (int receiveBufferSize) {
+			Preconditions.checkArgument ((receiveBufferSize >= 0), "The receive buffer size cannot be negative.");
+
+			this.receiveBufferSize = receiveBufferSize;
+			return this;
+		}
+
+		/**
+		 * Sets the socket send buffer size (or 0 to use the operating system's default).
+		 * @param sendBufferSize The size in bytes.
+		 * @return The builder.
+		 */
+		public Builder sendBufferSize (int sendBufferSize) {
+			Preconditions.checkArgument ((sendBufferSize >= 0), "The send buffer size cannot be negative.");
+
+			this.sendBufferSize = sendBufferSize;
+			return this;
+		}
+
+		/**
+		 * Sets the write buffer water marks.
+		 * Channels become unwritable once more than the high water mark is queued and writable again once the queue
+		 * drops below the low water mark.
+		 * @param lowWaterMark The low water mark in bytes.
+		 * @param highWaterMark The high water mark in bytes.
+		 * @return The builder.
+		 */
+		public Builder writeBufferWaterMarks (int lowWaterMark, int highWaterMark) {
+			Preconditions.checkArgument ((lowWaterMark >= 0), "The low water mark cannot be negative.");
+			Preconditions.checkArgument ((highWaterMark >= lowWaterMark), "The high water mark cannot be lower than the low water mark.");
+
+			this.writeBufferLowWaterMark = lowWaterMark;
+			this.writeBufferHighWaterMark = highWaterMark;
+			return this;
+		}
+
+		/**
+		 * Sets the buffer allocator.
+		 * @param allocator The allocator.
+		 * @return The builder.
+		 */
+		public Builder allocator (@NonNull ByteBufAllocator allocator) {
+			this.allocator = allocator;
+			return this;
+		}
+
+		/**
+		 * Sets the buffer allocator.
+		 * @param pooled True if buffers should be pooled.
+		 * @param direct True if direct buffers should be preferred over heap buffers.
+		 * @return The builder.
+		 */
+		public Builder allocator (boolean pooled, boolean direct) {
+			return this.allocator ((pooled ? new PooledByteBufAllocator (direct) : new UnpooledByteBufAllocator (direct)));
+		}
+
+		/**
+		 * Sets the read timeout (or 0 to disable the timeout).
+		 * @param timeout The timeout.
+		 * @param unit The timeout unit.
+		 * @return The builder.
+		 */
+		public Builder readTimeout (long timeout, @NonNull TimeUnit unit) {
+			Preconditions.checkArgument ((timeout >= 0), "The read timeout cannot be negative.");
+
+			this.readTimeout = unit.toMillis (timeout);
+			return this;
+		}
+
+		/**
+		 * Sets the write timeout (or 0 to disable the timeout).
+		 * Connections which did not flush any data within the timeout are closed.
+		 * @param timeout The timeout.
+		 * @param unit The timeout unit.
+		 * @return The builder.
+		 */
+		public Builder writeTimeout (long timeout, @NonNull TimeUnit unit) {
+			Preconditions.checkArgument ((timeout >= 0), "The write timeout cannot be negative.");
+
+			this.writeTimeout = unit.toMillis (timeout);
+			return this;
+		}
+
+		/**
+		 * Sets the session timeout (or 0 to disable the timeout).
+		 * Connections are closed once they exceed the timeout regardless of their traffic.
+		 * @param timeout The timeout.
+		 * @param unit The timeout unit.
+		 * @return The builder.
+		 */
+		public Builder sessionTimeout (long timeout, @NonNull TimeUnit unit) {
+			Preconditions.checkArgument ((timeout >= 0), "The session timeout cannot be negative.");
+
+			this.sessionTimeout = unit.toMillis (timeout);
+			return this;
+		}
+
+		/**
+		 * Sets the timer which tracks the timeouts of all connections.
+		 * The timer is never stopped by the server. Servers share a single timer unless a timer is passed.
+		 * @param timer The timer.
+		 * @return The builder.
+		 */
+		public Builder timer (@NonNull Timer timer) {
+			this.timer = timer;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum frame size.
+		 * @param maximumFrameSize The size in bytes.
+		 * @return The builder.
+		 */
+		public Builder maximumFrameSize (int maximumFrameSize) {
+			Preconditions.checkArgument ((maximumFrameSize >= 10), "The maximum frame size needs to fit at least an empty packet.");
+
+			this.maximumFrameSize = maximumFrameSize;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum amount of concurrent connections per client address (or 0 to disable the limit).
+		 * Connections which exceed the limit are closed as soon as they are accepted.
+		 * @param maximumConnections The amount of connections.
+		 * @return The builder.
+		 */
+		public Builder maximumConnectionsPerAddress (int maximumConnections) {
+			Preconditions.checkArgument ((maximumConnections >= 0), "The maximum amount of connections cannot be negative.");
+
+			this.maximumConnectionsPerAddress = maximumConnections;
+			return this;
+		}
+
+		/**
+		 * Sets the amount of connections which are accepted per client address and period (or 0 to disable the
+		 * limit).
+		 * Connections which exceed the rate are closed as soon as they are accepted.
+		 * @param connections The amount of connections.
+		 * @param period The period.
+		 * @param unit The period unit.
+		 * @return The builder.
+		 */
+		public Builder connectionRate (int connections, long period, @NonNull TimeUnit unit) {
+			Preconditions.checkArgument ((connections >= 0), "The amount of connections cannot be negative.");
+			Preconditions.checkArgument ((period > 0), "The period needs to be positive.");
+
+			this.connectionRateLimit = connections;
+			this.connectionRatePeriod = unit.toNanos (period);
+			return this;
+		}
+
+		/**
+		 * Sets the amount of authentication attempts which are accepted per client address and period (or 0 to
+		 * disable the limit).
+		 * Attempts which exceed the rate are denied without verifying the password and further connections from the
+		 * same address are closed as soon as they are accepted until the rate recovers.
+		 * @param attempts The amount of attempts.
+		 * @param period The period.
+		 * @param unit The period unit.
+		 * @return The builder.
+		 */
+		public Builder authenticationRate (int attempts, long period, @NonNull TimeUnit unit) {
+			Preconditions.checkArgument ((attempts >= 0), "The amount of attempts cannot be negative.");
+			Preconditions.checkArgument ((period > 0), "The period needs to be positive.");
+
+			this.authenticationRateLimit = attempts;
+			this.authenticationRatePeriod = unit.toNanos (period);
+			return this;
+		}
+
+		/**
+		 * Sets the maximum amount of unauthenticated connections (or 0 to disable the limit).
+		 * The oldest unauthenticated connection is closed once a new connection exceeds the limit.
+		 * @param maximumPendingConnections The amount of connections.
+		 * @return The builder.
+		 */
+		public Builder maximumPendingConnections (int maximumPendingConnections) {
+			Preconditions.checkArgument ((maximumPendingConnections >= 0), "The maximum amount of pending connections cannot be negative.");
+
+			this.maximumPendingConnections = maximumPendingConnections;
+			return this;
+		}
+
+		/**
+		 * Sets the time within which clients need to authenticate (or 0 to disable the timeout).
+		 * @param timeout The timeout.
+		 * @param unit The timeout unit.
+		 * @return The builder.
+		 */
+		public Builder authenticationTimeout (long timeout, @NonNull TimeUnit unit) {
+			Preconditions.checkArgument ((timeout >= 0), "The authentication timeout cannot be negative.");
+
+			this.authenticationTimeout = unit.toMillis (timeout);
+			return this;
+		}
+
+		/**
+		 * Builds the configuration.
+		 * @return The configuration.
+		 */
+		public RconServerConfig build () {
+			return (new RconServerConfig (this));
+		}
+	}
+}
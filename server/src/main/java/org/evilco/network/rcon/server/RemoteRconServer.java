@@ -15,15 +15,17 @@
 
 package org.evilco.network.rcon.server;
 
-import com.google.common.eventbus.EventBus;
+import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import lombok.NonNull;
 import org.evilco.network.rcon.common.codec.ServerCodecConfiguration;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
 import org.evilco.network.rcon.server.command.ICommandRegistry;
 import org.evilco.network.rcon.server.protocol.ServerChannelInitializer;
 
@@ -41,12 +43,21 @@ public class RemoteRconServer extends AbstractRconServer {
 		super (password);
 	}
 
+	/**
+	 * Constructs a new RemoteRconServer instance.
+	 * @param password The password.
+	 * @param configuration The server configuration.
+	 */
+	public RemoteRconServer (@NonNull String password, @NonNull RconServerConfig configuration) {
+		super (password, configuration);
+	}
+
 	/**
 	 * Constructs a new RemoteRconServer instance.
 	 * @param eventBus The event bus.
 	 * @param password The password.
 	 */
-	public RemoteRconServer (@NonNull EventBus eventBus, @NonNull String password) {
+	public RemoteRconServer (@NonNull IEventDispatcher eventBus, @NonNull String password) {
 		super (eventBus, password);
 	}
 
@@ -56,10 +67,39 @@ public class RemoteRconServer extends AbstractRconServer {
 	 * @param registry The command registry.
 	 * @param password The password.
 	 */
-	public RemoteRconServer (@NonNull EventBus eventBus, @NonNull ICommandRegistry registry, @NonNull String password) {
+	public RemoteRconServer (@NonNull IEventDispatcher eventBus, @NonNull ICommandRegistry registry, @NonNull String password) {
 		super (eventBus, registry, password);
 	}
 
+	/**
+	 * Constructs a new RemoteRconServer instance.
+	 * @param eventBus The event bus.
+	 * @param registry The command registry.
+	 * @param password The password.
+	 * @param configuration The server configuration.
+	 */
+	public RemoteRconServer (@NonNull IEventDispatcher eventBus, @NonNull ICommandRegistry registry, @NonNull String password, @NonNull RconServerConfig configuration) {
+		super (eventBus, registry, password, configuration);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void configureBootstrap (@NonNull ServerBootstrap bootstrap, @NonNull RconServerConfig configuration) {
+		super.configureBootstrap (bootstrap, configuration);
+
+		// set acceptor options
+		bootstrap.option (ChannelOption.SO_BACKLOG, configuration.getBacklog ());
+
+		// set client options
+		bootstrap.childOption (ChannelOption.SO_KEEPALIVE, configuration.isKeepAlive ());
+		bootstrap.childOption (ChannelOption.TCP_NODELAY, configuration.isTcpNoDelay ());
+
+		if (configuration.getReceiveBufferSize () > 0) bootstrap.childOption (ChannelOption.SO_RCVBUF, configuration.getReceiveBufferSize ());
+		if (configuration.getSendBufferSize () > 0) bootstrap.childOption (ChannelOption.SO_SNDBUF, configuration.getSendBufferSize ());
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -80,7 +120,7 @@ public class RemoteRconServer extends AbstractRconServer {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public EventLoopGroup createEventLoopGroup () {
-		return (new NioEventLoopGroup ());
+	public EventLoopGroup createEventLoopGroup (int threads) {
+		return (new NioEventLoopGroup (threads));
 	}
 }
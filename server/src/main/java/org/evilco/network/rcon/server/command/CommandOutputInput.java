@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.command;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.common.packet.ResponsePacket;
+import org.evilco.network.rcon.common.utility.BufferUtility;
+import org.evilco.network.rcon.server.command.handler.ICommandOutput;
+import org.evilco.network.rcon.server.command.handler.ICommandOutputProducer;
+import org.evilco.network.rcon.server.error.CommandException;
+
+/**
+ * Adapts an output producer to the chunked write handler.
+ * The handler only polls for chunks while the channel is writable which bounds the amount of buffered output.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@RequiredArgsConstructor (access = AccessLevel.PACKAGE)
+public class CommandOutputInput implements ChunkedInput<PacketWrapper<ResponsePacket>>, ICommandOutput {
+
+	/**
+	 * Stores the internal logger.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (CommandOutputInput.class);
+
+	/**
+	 * Stores the request identifier.
+	 */
+	@Getter
+	private final int identifier;
+
+	/**
+	 * Stores the output producer.
+	 */
+	@NonNull
+	private final ICommandOutputProducer producer;
+
+	/**
+	 * Stores the pending output.
+	 */
+	private ByteBuf buffer = null;
+
+	/**
+	 * Stores the current channel handler context.
+	 */
+	private ChannelHandlerContext context = null;
+
+	/**
+	 * Indicates whether the producer has finished.
+	 */
+	private boolean finished = false;
+
+	/**
+	 * Indicates whether at least one packet has been emitted.
+	 */
+	private boolean sent = false;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close () throws Exception {
+		// release pending output
+		if (this.buffer != null) {
+			this.buffer.release ();
+			this.buffer = null;
+		}
+
+		// close producer
+		this.producer.close ();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEndOfInput () throws Exception {
+		return (this.finished && this.sent && this.getPendingBytes () == 0);
+	}
+
+	/**
+	 * Returns the amount of pending bytes.
+	 * @return The amount of bytes.
+	 */
+	private int getPendingBytes () {
+		return (this.buffer != null ? this.buffer.readableBytes () : 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PacketWrapper<ResponsePacket> readChunk (ChannelHandlerContext ctx) throws Exception {
+		// produce output until a full chunk is available
+		this.context = ctx;
+
+		try {
+			while (!this.finished && this.getPendingBytes () < ResponsePacket.MAXIMUM_CHUNK_SIZE) {
+				try {
+					this.finished = !this.producer.produce (this);
+				} catch (CommandException ex) {
+					// log
+					getLogger ().debug ("Could not stream output with identifier %s: %s", this.identifier, ex.getMessage ());
+
+					// append error
+					this.write ("Error: " + ex.getMessage ());
+					this.finished = true;
+				}
+			}
+		} finally {
+			this.context = null;
+		}
+
+		// skip empty chunks
+		if (this.getPendingBytes () == 0) {
+			if (this.sent) return null;
+
+			// always respond at least once
+			this.sent = true;
+			return PacketWrapper.newInstance (this.identifier, new ResponsePacket (""));
+		}
+
+		// slice chunk (the packet retains the pending buffer)
+		ResponsePacket packet = new ResponsePacket (this.buffer.readSlice (Math.min (this.buffer.readableBytes (), ResponsePacket.MAXIMUM_CHUNK_SIZE)));
+
+		// keep slicing full chunks from the pending buffer and only move a partial remainder into a fresh buffer once more
+		// output is appended (the sliced buffer cannot be compacted and would otherwise grow with the entire stream)
+		if (!this.buffer.isReadable ()) {
+			this.buffer.release ();
+			this.buffer = null;
+		} else if (!this.finished && this.buffer.readableBytes () < ResponsePacket.MAXIMUM_CHUNK_SIZE) {
+			ByteBuf remaining = ctx.alloc ().buffer (ResponsePacket.MAXIMUM_CHUNK_SIZE);
+			remaining.writeBytes (this.buffer);
+
+			this.buffer.release ();
+			this.buffer = remaining;
+		}
+
+		// create wrapper
+		this.sent = true;
+		return PacketWrapper.newInstance (this.identifier, packet);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ICommandOutput write (@NonNull CharSequence output) {
+		Preconditions.checkState ((this.context != null), "Output may only be written from within ICommandOutputProducer#produce");
+
+		// allocate buffer
+		if (this.buffer == null) this.buffer = this.context.alloc ().buffer (Math.max (output.length (), ResponsePacket.MAXIMUM_CHUNK_SIZE));
+
+		// encode
+		BufferUtility.writeAscii (this.buffer, output);
+		return this;
+	}
+}
@@ -16,7 +16,6 @@
 package org.evilco.network.rcon.server.command;
 
 import com.google.common.base.Splitter;
-import com.google.common.eventbus.EventBus;
 import io.netty.channel.Channel;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -24,16 +23,19 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
 import org.evilco.network.rcon.common.packet.PacketWrapper;
 import org.evilco.network.rcon.common.packet.ResponsePacket;
 import org.evilco.network.rcon.server.command.annotation.CommandHandler;
 import org.evilco.network.rcon.server.command.handler.ICommandHandler;
+import org.evilco.network.rcon.server.command.handler.IStreamingCommandHandler;
 import org.evilco.network.rcon.server.command.handler.ReflectionCommandHandler;
 import org.evilco.network.rcon.server.error.CommandException;
 import org.evilco.network.rcon.server.error.CommandUsageException;
 import org.evilco.network.rcon.server.event.command.CommandPostProcessEvent;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -60,34 +62,39 @@ public class SimpleCommandRegistry implements ICommandRegistry {
 	 * Stores the event bus.
 	 */
 	@Getter
-	private final EventBus eventBus;
+	private final IEventDispatcher eventBus;
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public boolean handle (@NonNull String command, int identifier, @NonNull Channel channel) {
-		// check registration
-		if (!this.commandMap.containsKey (command)) return false;
-
 		// parse command
-		List<String> arguments = Splitter.on (' ').omitEmptyStrings ().splitToList (command);
+		List<String> arguments = new ArrayList<String> (Splitter.on (' ').omitEmptyStrings ().splitToList (command));
+		if (arguments.isEmpty ()) return false;
 
 		// remove first element
 		command = arguments.remove (0);
 
 		// get handler
 		ICommandHandler handler = this.commandMap.get (command);
+		if (handler == null) return false;
 
 		// handle
 		PacketWrapper<ResponsePacket> wrapper = null;
 
 		try {
+			// stream output
+			if (handler instanceof IStreamingCommandHandler) {
+				channel.writeAndFlush (new CommandOutputInput (identifier, ((IStreamingCommandHandler) handler).open (command, arguments)));
+				return true;
+			}
+
 			// call handler
 			String result = handler.handle (command, arguments);
 
 			// respond
-			wrapper = new PacketWrapper (identifier, new ResponsePacket (result));
+			wrapper = PacketWrapper.newInstance (identifier, new ResponsePacket (result));
 		} catch (CommandUsageException ex) {
 			// log
 			getLogger ().debug ("Could not execute command \"%s\": Usage error", command);
@@ -96,23 +103,42 @@ public class SimpleCommandRegistry implements ICommandRegistry {
 			String usage = handler.getUsage ();
 
 			// create error response
-			wrapper = new PacketWrapper (identifier, new ResponsePacket ("Usage: " + command + (usage.isEmpty () ? "": " " + usage)));
+			wrapper = PacketWrapper.newInstance (identifier, new ResponsePacket ("Usage: " + command + (usage.isEmpty () ? "": " " + usage)));
 		} catch (CommandException ex) {
 			// log
 			getLogger ().debug ("Could not execute command \"%s\": %s", command, ex.getMessage ());
 
 			// create error response
-			wrapper = new PacketWrapper (identifier, new ResponsePacket ("Error: " + ex.getMessage ()));
+			wrapper = PacketWrapper.newInstance (identifier, new ResponsePacket ("Error: " + ex.getMessage ()));
+		}
+
+		// skip event
+		if (!this.eventBus.hasListeners (CommandPostProcessEvent.class)) {
+			channel.writeAndFlush (wrapper);
+			return true;
 		}
 
 		// fire event
-		CommandPostProcessEvent event = new CommandPostProcessEvent (wrapper);
-		this.eventBus.post (event);
+		CommandPostProcessEvent event = CommandPostProcessEvent.newInstance (wrapper);
 
-		// handle
-		if (event.isCancelled ()) return false;
-		channel.writeAndFlush (event.getPacket ());
-		return true;
+		try {
+			this.eventBus.post (event);
+
+			// release replaced packet
+			PacketWrapper<ResponsePacket> replacement = event.getPacket ();
+			if (replacement != wrapper) wrapper.release ();
+
+			// handle
+			if (event.isCancelled ()) {
+				replacement.release ();
+				return false;
+			}
+
+			channel.writeAndFlush (replacement);
+			return true;
+		} finally {
+			event.recycle ();
+		}
 	}
 
 	/**
@@ -15,10 +15,17 @@
 
 package org.evilco.network.rcon.server.command.annotation;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
+@Retention (RetentionPolicy.RUNTIME)
+@Target (ElementType.METHOD)
 public @interface CommandHandler {
 
 	/**
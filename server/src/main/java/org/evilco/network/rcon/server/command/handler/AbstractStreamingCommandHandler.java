@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.command.handler;
+
+import org.evilco.network.rcon.server.error.CommandException;
+
+import java.util.List;
+
+/**
+ * Provides a base for streaming command handlers.
+ * Callers which require the complete response (see {@link #handle(String, List)}) receive the buffered output.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public abstract class AbstractStreamingCommandHandler implements IStreamingCommandHandler {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String handle (String command, List<String> arguments) throws CommandException {
+		// open output
+		ICommandOutputProducer producer = this.open (command, arguments);
+
+		// buffer output
+		final StringBuilder builder = new StringBuilder ();
+
+		try {
+			ICommandOutput output = new ICommandOutput () {
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				public ICommandOutput write (CharSequence output) {
+					builder.append (output);
+					return this;
+				}
+			};
+
+			while (producer.produce (output));
+		} finally {
+			producer.close ();
+		}
+
+		return builder.toString ();
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.command.handler;
+
+/**
+ * Represents a sink for streamed command output.
+ * Output is encoded as ASCII and sent as a sequence of response packets which share the request identifier.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public interface ICommandOutput {
+
+	/**
+	 * Writes a portion of output.
+	 * @param output The output.
+	 * @return The output sink.
+	 */
+	public ICommandOutput write (CharSequence output);
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.command.handler;
+
+import org.evilco.network.rcon.server.error.CommandException;
+
+/**
+ * Represents a producer of streamed command output.
+ * Producers are polled on the channel's event loop whenever the channel is writable and are not invoked while the
+ * outbound buffer of the channel is full. Each invocation should thus write a modest portion of output.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public interface ICommandOutputProducer {
+
+	/**
+	 * Closes the producer.
+	 * This method is invoked once the output has been written completely or the channel was closed.
+	 */
+	public void close ();
+
+	/**
+	 * Writes the next portion of output.
+	 * @param output The output sink.
+	 * @return True if more output follows.
+	 * @throws CommandException Occurs if producing the output fails.
+	 */
+	public boolean produce (ICommandOutput output) throws CommandException;
+}
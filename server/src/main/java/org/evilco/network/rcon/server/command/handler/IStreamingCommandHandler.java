@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.command.handler;
+
+import org.evilco.network.rcon.server.error.CommandException;
+
+import java.util.List;
+
+/**
+ * Represents a command handler which streams its output instead of returning it as a whole.
+ * Streamed responses are not passed through {@link org.evilco.network.rcon.server.event.command.CommandPostProcessEvent}.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public interface IStreamingCommandHandler extends ICommandHandler {
+
+	/**
+	 * Opens the output of a command.
+	 * @param command The command.
+	 * @param arguments The command arguments.
+	 * @return The output producer.
+	 * @throws CommandException Occurs if the command cannot be executed.
+	 */
+	public ICommandOutputProducer open (String command, List<String> arguments) throws CommandException;
+}
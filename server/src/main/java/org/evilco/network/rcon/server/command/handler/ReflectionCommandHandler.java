@@ -58,7 +58,7 @@ public class ReflectionCommandHandler implements ICommandHandler {
 	@Override
 	public String handle (String command, List<String> arguments) throws CommandException {
 		try {
-			return ((String) this.method.invoke (command, arguments));
+			return ((String) this.method.invoke (this.object, command, arguments));
 		} catch (IllegalAccessException | InvocationTargetException | ClassCastException ex) {
 			throw new CommandHandlerException ("Could not invoke method " + this.object.getClass ().getName () + "#" + this.method.getName () + ": " + ex.getMessage (), ex);
 		}
@@ -15,26 +15,108 @@
 
 package org.evilco.network.rcon.server.event.command;
 
-import lombok.AllArgsConstructor;
+import io.netty.util.Recycler;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 import org.evilco.network.rcon.common.event.AbstractCancellableEvent;
+import org.evilco.network.rcon.common.event.IRecyclableEvent;
+import org.evilco.network.rcon.common.event.packet.IPacketEvent;
 import org.evilco.network.rcon.common.packet.PacketWrapper;
 import org.evilco.network.rcon.common.packet.ResponsePacket;
+import org.evilco.network.rcon.common.utility.PoolingUtility;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@AllArgsConstructor
-public class CommandPostProcessEvent extends AbstractCancellableEvent {
+public class CommandPostProcessEvent extends AbstractCancellableEvent implements IPacketEvent, IRecyclableEvent {
 
 	/**
-	 * Stores the response packet.
+	 * Stores the event pool.
+	 */
+	private static final Recycler<CommandPostProcessEvent> RECYCLER = new Recycler<CommandPostProcessEvent> () {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected CommandPostProcessEvent newObject (Handle<CommandPostProcessEvent> handle) {
+			return new CommandPostProcessEvent (handle);
+		}
+	};
+
+	/**
+	 * Stores the recycler handle (or null if this instance is not pooled).
+	 */
+	private final Recycler.Handle<CommandPostProcessEvent> handle;
+
+	/**
+	 * Stores the packet.
 	 */
 	@Getter
 	@Setter
 	@NonNull
 	private PacketWrapper<ResponsePacket> packet;
+
+	/**
+	 * Constructs a new (unpooled) CommandPostProcessEvent instance.
+	 * @param packet The packet.
+	 */
+	public CommandPostProcessEvent (@NonNull PacketWrapper<ResponsePacket> packet) {
+		this.handle = null;
+		this.packet = packet;
+	}
+
+	/**
+	 * Constructs a new pooled CommandPostProcessEvent instance.
+	 * @param handle The recycler handle.
+	 */
+	private CommandPostProcessEvent (Recycler.Handle<CommandPostProcessEvent> handle) {
+		this.handle = handle;
+	}
+
+	/**
+	 * Returns an event for the specified packet (which is taken from the pool if pooling is enabled).
+	 * @param packet The packet.
+	 * @return The event.
+	 */
+	public static CommandPostProcessEvent newInstance (@NonNull PacketWrapper<ResponsePacket> packet) {
+		// skip pool
+		if (!PoolingUtility.ENABLED) return new CommandPostProcessEvent (packet);
+
+		// get instance
+		CommandPostProcessEvent event = RECYCLER.get ();
+		event.packet = packet;
+
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CommandPostProcessEvent copy () {
+		// create copy
+		CommandPostProcessEvent event = new CommandPostProcessEvent (this.packet);
+		event.setCancelled (this.isCancelled ());
+
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void recycle () {
+		// skip unpooled instances
+		if (this.handle == null) return;
+
+		// reset state
+		this.packet = null;
+		this.setCancelled (false);
+
+		// recycle
+		RECYCLER.recycle (this, this.handle);
+	}
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.protocol;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.protocol.TimeoutManager;
+import org.evilco.network.rcon.server.RconServerConfig;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the amount and lifetime of unauthenticated connections.
+ * Connections are admitted once they become active and released once they authenticate. Connections which do not
+ * authenticate within the authentication timeout are closed and the oldest unauthenticated connection is closed once
+ * the amount of unauthenticated connections exceeds its limit. Authentication deadlines are tracked by the timer of the
+ * server's {@link TimeoutManager}.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class AdmissionController {
+
+	/**
+	 * Stores the internal logger.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (AdmissionController.class);
+
+	/**
+	 * Stores the maximum amount of unauthenticated connections (or 0 if unlimited).
+	 */
+	@Getter
+	private final int maximumPendingConnections;
+
+	/**
+	 * Stores the authentication timeout in milliseconds (or 0 if disabled).
+	 */
+	@Getter
+	private final long authenticationTimeout;
+
+	/**
+	 * Stores the timeout manager.
+	 */
+	private final TimeoutManager timeoutManager;
+
+	/**
+	 * Stores all unauthenticated connections (in order of admission) along with their authentication deadline.
+	 */
+	private final Map<Channel, Timeout> pendingChannels = new LinkedHashMap<Channel, Timeout> ();
+
+	/**
+	 * Constructs a new AdmissionController instance.
+	 * @param configuration The server configuration.
+	 * @param timeoutManager The timeout manager.
+	 */
+	public AdmissionController (@NonNull RconServerConfig configuration, @NonNull TimeoutManager timeoutManager) {
+		this.timeoutManager = timeoutManager;
+		this.maximumPendingConnections = configuration.getMaximumPendingConnections ();
+		this.authenticationTimeout = configuration.getAuthenticationTimeout ();
+	}
+
+	/**
+	 * Admits an unauthenticated connection.
+	 * @param channel The channel.
+	 */
+	public void admit (@NonNull final Channel channel) {
+		// register connection
+		Channel evictedChannel = null;
+
+		synchronized (this.pendingChannels) {
+			if (this.maximumPendingConnections > 0 && this.pendingChannels.size () >= this.maximumPendingConnections) {
+				Iterator<Map.Entry<Channel, Timeout>> iterator = this.pendingChannels.entrySet ().iterator ();
+				Map.Entry<Channel, Timeout> entry = iterator.next ();
+
+				evictedChannel = entry.getKey ();
+				if (entry.getValue () != null) entry.getValue ().cancel ();
+				iterator.remove ();
+			}
+
+			this.pendingChannels.put (channel, null);
+		}
+
+		// enforce authentication timeout (scheduled after registration since short timeouts may expire right away)
+		if (this.authenticationTimeout > 0) {
+			Timeout deadline = this.timeoutManager.schedule (new TimerTask () {
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				public void run (Timeout timeout) throws Exception {
+					if (!AdmissionController.this.release (channel)) return;
+
+					// log
+					getLogger ().debug ("Client %s did not authenticate in time. Closing connection.", channel.remoteAddress ());
+
+					// close connection
+					channel.close ();
+				}
+			}, TimeUnit.MILLISECONDS.toNanos (this.authenticationTimeout));
+
+			// attach deadline (or cancel it if the connection has been released in the meantime)
+			boolean pending;
+
+			synchronized (this.pendingChannels) {
+				pending = this.pendingChannels.containsKey (channel);
+				if (pending) this.pendingChannels.put (channel, deadline);
+			}
+
+			if (!pending) deadline.cancel ();
+		}
+
+		// forget closed connections (registered afterwards since channels may already be closed)
+		channel.closeFuture ().addListener (new ChannelFutureListener () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void operationComplete (ChannelFuture future) throws Exception {
+				AdmissionController.this.release (channel);
+			}
+		});
+
+		// evict oldest connection
+		if (evictedChannel != null) {
+			// log
+			getLogger ().debug ("Too many unauthenticated connections. Evicting client %s.", evictedChannel.remoteAddress ());
+
+			// close connection
+			evictedChannel.close ();
+		}
+	}
+
+	/**
+	 * Returns the current amount of unauthenticated connections.
+	 * @return The amount of connections.
+	 */
+	public int getPendingConnections () {
+		synchronized (this.pendingChannels) {
+			return this.pendingChannels.size ();
+		}
+	}
+
+	/**
+	 * Releases a connection (for instance because it has been authenticated) and cancels its authentication deadline.
+	 * @param channel The channel.
+	 * @return True if the connection was pending.
+	 */
+	public boolean release (@NonNull Channel channel) {
+		Timeout deadline;
+
+		synchronized (this.pendingChannels) {
+			if (!this.pendingChannels.containsKey (channel)) return false;
+			deadline = this.pendingChannels.remove (channel);
+		}
+
+		// cancel deadline (the deadline task may call this method itself)
+		if (deadline != null) deadline.cancel ();
+		return true;
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.protocol;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.utility.TokenBucket;
+import org.evilco.network.rcon.server.RconServerConfig;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits connections and authentication attempts per client address.
+ * The limiter is installed in the pipeline of the acceptor channel and thus inspects connections before their own
+ * pipeline is initialized: Connections which exceed a limit are closed without any further processing. Addresses which
+ * are not internet addresses (such as local addresses) are never limited.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@ChannelHandler.Sharable
+public class ConnectionLimiter extends ChannelHandlerAdapter {
+
+	/**
+	 * Stores the internal logger.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (ConnectionLimiter.class);
+
+	/**
+	 * Defines the interval (in nanoseconds) in which idle address states are removed.
+	 */
+	public static final long PURGE_INTERVAL = TimeUnit.MINUTES.toNanos (1);
+
+	/**
+	 * Stores the server configuration.
+	 */
+	@Getter
+	private final RconServerConfig configuration;
+
+	/**
+	 * Stores the states of all known addresses.
+	 */
+	private final ConcurrentMap<InetAddress, AddressState> states = new ConcurrentHashMap<InetAddress, AddressState> ();
+
+	/**
+	 * Stores the time (in nanoseconds) of the next purge.
+	 */
+	private final AtomicLong nextPurge = new AtomicLong (System.nanoTime () + PURGE_INTERVAL);
+
+	/**
+	 * Constructs a new ConnectionLimiter instance.
+	 * @param configuration The server configuration.
+	 */
+	public ConnectionLimiter (@NonNull RconServerConfig configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelRead (ChannelHandlerContext ctx, Object msg) throws Exception {
+		// skip foreign messages and addresses
+		if (!(msg instanceof Channel) || !(((Channel) msg).remoteAddress () instanceof InetSocketAddress)) {
+			super.channelRead (ctx, msg);
+			return;
+		}
+
+		final Channel channel = ((Channel) msg);
+		final InetAddress address = ((InetSocketAddress) channel.remoteAddress ()).getAddress ();
+		long now = System.nanoTime ();
+
+		// remove idle states
+		this.purge (now);
+
+		// drop connection
+		final AddressState state = this.getState (address);
+		boolean permitted;
+
+		try {
+			permitted = state.acquireConnection (now);
+		} finally {
+			state.release ();
+		}
+
+		if (!permitted) {
+			// log
+			getLogger ().trace ("Dropping connection from %s: Address limit exceeded.", address);
+
+			// close connection
+			channel.unsafe ().closeForcibly ();
+			return;
+		}
+
+		// release connection slot once closed
+		if (this.configuration.getMaximumConnectionsPerAddress () > 0)
+			channel.closeFuture ().addListener (new ChannelFutureListener () {
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				public void operationComplete (ChannelFuture future) throws Exception {
+					state.releaseConnection ();
+				}
+			});
+
+		super.channelRead (ctx, msg);
+	}
+
+	/**
+	 * Returns the retained state of an address.
+	 * The state cannot be purged until it is released again.
+	 * @param address The address.
+	 * @return The state.
+	 */
+	private AddressState getState (@NonNull InetAddress address) {
+		while (true) {
+			AddressState state = this.states.get (address);
+
+			if (state == null) {
+				AddressState newState = new AddressState ();
+				state = this.states.putIfAbsent (address, newState);
+
+				if (state == null) state = newState;
+			}
+
+			// retry with a fresh state if the state is being purged
+			if (state.retain ()) return state;
+		}
+	}
+
+	/**
+	 * Removes the states of addresses which have neither open connections nor depleted buckets.
+	 * @param now The current time.
+	 */
+	private void purge (long now) {
+		long nextPurge = this.nextPurge.get ();
+
+		// wait for next purge
+		if (now - nextPurge < 0 || !this.nextPurge.compareAndSet (nextPurge, now + PURGE_INTERVAL)) return;
+
+		// remove states
+		Iterator<Map.Entry<InetAddress, AddressState>> iterator = this.states.entrySet ().iterator ();
+
+		while (iterator.hasNext ()) {
+			Map.Entry<InetAddress, AddressState> entry = iterator.next ();
+			if (entry.getValue ().retire (now)) this.states.remove (entry.getKey (), entry.getValue ());
+		}
+	}
+
+	/**
+	 * Attempts to authenticate from an address.
+	 * @param address The client address.
+	 * @return True if the attempt is within the authentication rate.
+	 */
+	public boolean tryAuthenticate (SocketAddress address) {
+		if (this.configuration.getAuthenticationRateLimit () == 0 || !(address instanceof InetSocketAddress)) return true;
+
+		AddressState state = this.getState (((InetSocketAddress) address).getAddress ());
+
+		try {
+			return state.authenticationBucket.tryAcquire ();
+		} finally {
+			state.release ();
+		}
+	}
+
+	/**
+	 * Stores the limits of a single address.
+	 */
+	private class AddressState {
+
+		/**
+		 * Stores the amount of open connections.
+		 */
+		private final AtomicInteger connections = new AtomicInteger ();
+
+		/**
+		 * Stores the connection rate bucket (or null if the rate is unlimited).
+		 */
+		private final TokenBucket connectionBucket;
+
+		/**
+		 * Stores the authentication rate bucket (or null if the rate is unlimited).
+		 */
+		private final TokenBucket authenticationBucket;
+
+		/**
+		 * Stores the amount of threads which currently use the state (or -1 if the state has been retired).
+		 */
+		private final AtomicInteger references = new AtomicInteger ();
+
+		/**
+		 * Constructs a new AddressState instance.
+		 */
+		public AddressState () {
+			RconServerConfig configuration = ConnectionLimiter.this.configuration;
+
+			this.connectionBucket = (configuration.getConnectionRateLimit () > 0 ? new TokenBucket (configuration.getConnectionRateLimit (), configuration.getConnectionRatePeriod (), TimeUnit.NANOSECONDS) : null);
+			this.authenticationBucket = (configuration.getAuthenticationRateLimit () > 0 ? new TokenBucket (configuration.getAuthenticationRateLimit (), configuration.getAuthenticationRatePeriod (), TimeUnit.NANOSECONDS) : null);
+		}
+
+		/**
+		 * Attempts to acquire a connection slot.
+		 * @param now The current time.
+		 * @return True if the connection is permitted.
+		 */
+		public boolean acquireConnection (long now) {
+			// drop addresses which exceeded their authentication rate
+			if (this.authenticationBucket != null && this.authenticationBucket.isEmpty (now)) return false;
+
+			// reserve slot
+			int maximumConnections = ConnectionLimiter.this.configuration.getMaximumConnectionsPerAddress ();
+
+			if (maximumConnections > 0) {
+				int connections;
+
+				do {
+					connections = this.connections.get ();
+					if (connections >= maximumConnections) return false;
+				} while (!this.connections.compareAndSet (connections, (connections + 1)));
+			}
+
+			// check rate
+			if (this.connectionBucket != null && !this.connectionBucket.tryAcquire (now)) {
+				if (maximumConnections > 0) this.releaseConnection ();
+				return false;
+			}
+
+			return true;
+		}
+
+		/**
+		 * Releases a connection slot.
+		 */
+		public void releaseConnection () {
+			this.connections.decrementAndGet ();
+		}
+
+		/**
+		 * Retains the state (prevents it from being retired).
+		 * @return True if the state was retained or false if it has been retired.
+		 */
+		public boolean retain () {
+			int references;
+
+			do {
+				references = this.references.get ();
+				if (references < 0) return false;
+			} while (!this.references.compareAndSet (references, (references + 1)));
+
+			return true;
+		}
+
+		/**
+		 * Releases the state.
+		 */
+		public void release () {
+			this.references.decrementAndGet ();
+		}
+
+		/**
+		 * Retires the state if it is idle and not in use.
+		 * The state is marked as retired before it is checked (thus no thread can alter it in between) and restored if
+		 * it turns out to be busy. Retired states are never used again.
+		 * @param now The current time.
+		 * @return True if the state has been retired.
+		 */
+		public boolean retire (long now) {
+			if (!this.references.compareAndSet (0, -1)) return false;
+			if (this.isIdle (now)) return true;
+
+			this.references.set (0);
+			return false;
+		}
+
+		/**
+		 * Indicates whether the state may be discarded.
+		 * @param now The current time.
+		 * @return True if the state is idle.
+		 */
+		public boolean isIdle (long now) {
+			return (this.connections.get () == 0 && (this.connectionBucket == null || this.connectionBucket.isFull (now)) && (this.authenticationBucket == null || this.authenticationBucket.isFull (now)));
+		}
+	}
+}
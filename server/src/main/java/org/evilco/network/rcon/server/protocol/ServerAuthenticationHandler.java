@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.protocol;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.ReferenceCountUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.network.rcon.common.packet.AuthenticationPacket;
+import org.evilco.network.rcon.common.packet.AuthenticationResponsePacket;
+import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.server.IRconServer;
+
+/**
+ * Authenticates new connections.
+ * Once a client has authenticated successfully, the handler replaces itself with a {@link ServerChannelHandler} which
+ * handles all further packets without checking the authentication state again. The handler does not keep any
+ * per-connection state and is thus shared between all channels of a server.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@RequiredArgsConstructor
+@ChannelHandler.Sharable
+public class ServerAuthenticationHandler extends ChannelHandlerAdapter {
+
+	/**
+	 * Stores the internal logger instance.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getFormatterLogger (ServerAuthenticationHandler.class);
+
+	/**
+	 * Stores the parent server.
+	 */
+	@Getter
+	@NonNull
+	private final IRconServer server;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void exceptionCaught (ChannelHandlerContext ctx, Throwable cause) throws Exception {
+		// log
+		getLogger ().warn ("An error occured while authenticating a client: " + cause.getMessage (), cause);
+
+		// kick client
+		ctx.channel ().close ();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelActive (ChannelHandlerContext ctx) throws Exception {
+		// register channel (channels are removed from the group automatically once closed)
+		this.server.getChannels ().add (ctx.channel ());
+
+		// limit unauthenticated connections
+		this.server.getAdmissionController ().admit (ctx.channel ());
+
+		super.channelActive (ctx);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelRead (ChannelHandlerContext ctx, Object msg) throws Exception {
+		try {
+			this.handlePacket (ctx, msg);
+		} finally {
+			// release packet bodies
+			ReferenceCountUtil.release (msg);
+		}
+	}
+
+	/**
+	 * Handles an incoming message.
+	 * @param ctx The channel handler context.
+	 * @param msg The message.
+	 */
+	protected void handlePacket (ChannelHandlerContext ctx, Object msg) {
+		// abort
+		if (!(msg instanceof PacketWrapper)) {
+			// log
+			getLogger ().warn ("Received a message of type " + msg.getClass ().getName () + "! Skipping unknown packet type.");
+
+			// skip execution
+			return;
+		}
+
+		// check type
+		if (!(((PacketWrapper) msg).getPacket () instanceof AuthenticationPacket)) {
+			// notify client about state
+			ctx.channel ().writeAndFlush (PacketWrapper.newInstance (-1, new AuthenticationResponsePacket ()));
+
+			// close connection
+			ctx.channel ().disconnect ();
+
+			// skip further execution
+			return;
+		}
+
+		// cast packet
+		PacketWrapper wrapper = ((PacketWrapper) msg);
+		AuthenticationPacket packet = ((AuthenticationPacket) wrapper.getPacket ());
+
+		// log
+		getLogger ().debug ("Received authentication packet from client " + ctx.channel ().remoteAddress ().toString () + ".");
+
+		// enforce authentication rate
+		ConnectionLimiter limiter = this.server.getConnectionLimiter ();
+
+		if (limiter != null && !limiter.tryAuthenticate (ctx.channel ().remoteAddress ())) {
+			// log
+			getLogger ().debug ("Client " + ctx.channel ().remoteAddress ().toString () + " exceeded the authentication rate. Authentication denied.");
+
+			// deny authentication
+			this.denyAuthentication (ctx);
+			return;
+		}
+
+		// verify server password
+		if (this.server.getPassword () == null || this.server.getPassword ().isEmpty ()) {
+			// log
+			getLogger ().debug ("The server password is unset or empty. Authentication denied.");
+
+			// deny authentication
+			this.denyAuthentication (ctx);
+			return;
+		}
+
+		// verify password
+		if (!this.server.getPassword ().equals (packet.getPassword ())) {
+			// log
+			getLogger ().debug ("Failed authentication attempt from client.");
+			getLogger ().trace ("Password was: \"" + packet.getPassword () + "\" (expecting: \"" + this.server.getPassword () + "\").");
+
+			// notify client about messed up authentication
+			this.denyAuthentication (ctx);
+			return;
+		}
+
+		// log
+		getLogger ().debug ("Authentication successful. Client will be notified.");
+
+		// set authentication state
+		ServerChannelHandler.setAuthenticationState (ctx, true);
+		this.server.getAdmissionController ().release (ctx.channel ());
+
+		// notify client
+		ctx.channel ().writeAndFlush (PacketWrapper.newInstance (wrapper.getIdentifier (), new AuthenticationResponsePacket ()));
+
+		// hand all further packets to the command handler
+		ctx.pipeline ().replace (this, ctx.name (), new ServerChannelHandler (this.server));
+	}
+
+	/**
+	 * Notifies the client about a failed authentication and closes its connection.
+	 * @param ctx The channel handler context.
+	 */
+	protected void denyAuthentication (ChannelHandlerContext ctx) {
+		// notify client
+		ctx.channel ().writeAndFlush (PacketWrapper.newInstance (-1, new AuthenticationResponsePacket ()));
+
+		// close connection
+		ctx.channel ().disconnect ();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void userEventTriggered (ChannelHandlerContext ctx, Object evt) throws Exception {
+		if (evt instanceof ServerShutdownEvent) {
+			// unauthenticated clients have no pending commands
+			ctx.channel ().config ().setAutoRead (false);
+			ctx.channel ().writeAndFlush (Unpooled.EMPTY_BUFFER).addListener (ChannelFutureListener.CLOSE);
+			return;
+		}
+
+		super.userEventTriggered (ctx, evt);
+	}
+}
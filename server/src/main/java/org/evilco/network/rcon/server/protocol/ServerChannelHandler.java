@@ -15,23 +15,34 @@
 
 package org.evilco.network.rcon.server.protocol;
 
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.evilco.network.rcon.common.packet.*;
 import org.evilco.network.rcon.server.IRconServer;
+import org.evilco.network.rcon.server.command.CommandOutputInput;
 
 import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
+ * Handles packets of authenticated clients.
+ * The handler is installed by {@link ServerAuthenticationHandler} once a client has authenticated successfully.
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
@@ -56,6 +67,21 @@ public class ServerChannelHandler extends ChannelHandlerAdapter {
 	@NonNull
 	private final IRconServer server;
 
+	/**
+	 * Stores all commands which are waiting for an execution slot (allocated with the first command).
+	 */
+	private Queue<PendingCommand> pendingCommands = null;
+
+	/**
+	 * Stores all commands which are currently being executed in request order (allocated with the first command).
+	 */
+	private Deque<InFlightCommand> inFlightCommands = null;
+
+	/**
+	 * Indicates whether the server is shutting down (no further commands are read in this case).
+	 */
+	private boolean shuttingDown = false;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -73,6 +99,20 @@ public class ServerChannelHandler extends ChannelHandlerAdapter {
 	 */
 	@Override
 	public void channelRead (ChannelHandlerContext ctx, Object msg) throws Exception {
+		try {
+			this.handlePacket (ctx, msg);
+		} finally {
+			// release packet bodies
+			ReferenceCountUtil.release (msg);
+		}
+	}
+
+	/**
+	 * Handles an incoming message.
+	 * @param ctx The channel handler context.
+	 * @param msg The message.
+	 */
+	protected void handlePacket (ChannelHandlerContext ctx, Object msg) {
 		// abort
 		if (!(msg instanceof PacketWrapper)) {
 			// log
@@ -85,108 +125,273 @@ public class ServerChannelHandler extends ChannelHandlerAdapter {
 		// cast packet
 		PacketWrapper wrapper = ((PacketWrapper) msg);
 
-		// handle authentication commands
-		if (!getAuthenticationState (ctx)) {
-			// check type
-			if (!(wrapper.getPacket () instanceof AuthenticationPacket)) {
-				// notify client about state
-				ctx.channel ().writeAndFlush (new PacketWrapper (-1, new AuthenticationResponsePacket ()));
+		// repeat authentication responses
+		if (wrapper.getPacket () instanceof AuthenticationPacket) {
+			// log
+			getLogger ().debug ("The client is already authenticated. Repeating response.");
 
-				// close connection
-				ctx.channel ().disconnect ();
+			// repeat packet
+			this.respond (ctx, wrapper.getIdentifier (), new AuthenticationResponsePacket ());
 
-				// skip further execution
-				return;
-			}
+			// skip further execution
+			return;
+		}
+
+		// handle command
+		if (wrapper.getPacket () instanceof ExecutePacket) {
+			// cast packet
+			ExecutePacket packet = ((ExecutePacket) wrapper.getPacket ());
 
 			// log
-			getLogger ().debug ("Received authentication packet from client " + ctx.channel ().remoteAddress ().toString () + ".");
+			getLogger ().trace ("Received command \"" + packet.getCommand () + "\" from client " + ctx.channel ().remoteAddress ().toString () + ".");
 
-			// repeat authentication packet
-			if (getAuthenticationState (ctx)) {
+			// respond to empty commands
+			if (packet.getCommand ().isEmpty ()) {
 				// log
-				getLogger ().debug ("The client is already authenticated. Repeating response.");
+				getLogger ().trace ("Responding to empty command packet.");
 
-				// repeat packet
-				ctx.channel ().writeAndFlush (new PacketWrapper (wrapper.getIdentifier (), new AuthenticationResponsePacket ()));
+				// respond
+				this.respond (ctx, wrapper.getIdentifier (), new ResponsePacket (""));
 
 				// skip further execution
 				return;
 			}
 
-			// verify server password
-			if (this.server.getPassword () == null || this.server.getPassword ().isEmpty ()) {
-				// log
-				getLogger ().debug ("The server password is unset or empty. Authentication denied.");
+			// call command handler
+			this.executeCommand (ctx, wrapper.getIdentifier (), packet.getCommand ());
+		}
+	}
+
+	/**
+	 * Executes a command on the server's command executor.
+	 * Up to {@link IRconServer#getMaximumPipelinedCommands()} commands of a single connection are executed
+	 * concurrently. Additional commands are queued and reading from the connection is suspended until an execution slot
+	 * becomes available.
+	 * @param ctx The channel handler context.
+	 * @param identifier The packet identifier.
+	 * @param command The command.
+	 */
+	protected void executeCommand (ChannelHandlerContext ctx, int identifier, String command) {
+		// allocate queues (idle connections do not need them)
+		if (this.pendingCommands == null) {
+			this.pendingCommands = new ArrayDeque<PendingCommand> ();
+			this.inFlightCommands = new ArrayDeque<InFlightCommand> ();
+		}
 
-				// deny authentication
-				ctx.channel ().writeAndFlush (new PacketWrapper (-1, new AuthenticationResponsePacket ()));
+		this.pendingCommands.add (new PendingCommand (identifier, command, null));
+		this.executePendingCommands (ctx);
+	}
 
-				// close connection
-				ctx.channel ().disconnect ();
+	/**
+	 * Responds to a packet which does not need to be executed.
+	 * The response is written immediately unless responses are ordered and earlier commands are still queued or
+	 * executed in which case it is queued behind them.
+	 * @param ctx The channel handler context.
+	 * @param identifier The packet identifier.
+	 * @param response The response.
+	 */
+	protected void respond (ChannelHandlerContext ctx, int identifier, IPacket response) {
+		if (!this.server.isOrderedResponses () || this.pendingCommands == null || (this.pendingCommands.isEmpty () && this.inFlightCommands.isEmpty ())) {
+			ctx.channel ().writeAndFlush (PacketWrapper.newInstance (identifier, response));
+			return;
+		}
 
-				// skip further execution
-				return;
-			}
+		// wait for earlier commands
+		this.pendingCommands.add (new PendingCommand (identifier, null, response));
+		this.executePendingCommands (ctx);
+	}
 
-			// cast packet
-			AuthenticationPacket packet = ((AuthenticationPacket) wrapper.getPacket ());
+	/**
+	 * Executes queued commands while execution slots are available.
+	 * @param ctx The channel handler context.
+	 */
+	protected void executePendingCommands (ChannelHandlerContext ctx) {
+		PendingCommand pendingCommand;
 
-			// verify password
-			if (this.server.getPassword ().equals (packet.getPassword ())) {
-				// log
-				getLogger ().debug ("Authentication successful. Client will be notified.");
+		while ((pendingCommand = this.pendingCommands.peek ()) != null) {
+			// wait for a free slot
+			if (this.inFlightCommands.size () >= this.server.getMaximumPipelinedCommands ()) break;
+
+			// wait for earlier commands with the same identifier (their responses could not be told apart otherwise)
+			if (this.server.isOrderedResponses () && this.findInFlightCommand (pendingCommand.getIdentifier ()) != null) break;
+
+			// execute command
+			this.pendingCommands.poll ();
 
-				// set authentication state
-				setAuthenticationState (ctx, true);
+			InFlightCommand command = new InFlightCommand (pendingCommand.getIdentifier ());
+			this.inFlightCommands.add (command);
+
+			// release queued responses in order
+			if (pendingCommand.getResponse () != null) {
+				this.writeResponse (ctx, command, PacketWrapper.newInstance (command.getIdentifier (), pendingCommand.getResponse ()));
+				this.finishCommand (ctx, command);
+				continue;
+			}
+
+			try {
+				this.server.getCommandExecutor ().execute (new CommandTask (ctx, command, pendingCommand.getCommand ()));
+			} catch (RejectedExecutionException ex) {
+				// log
+				getLogger ().warn ("Could not execute command \"%s\": %s", pendingCommand.getCommand (), ex.getMessage ());
 
 				// notify client
-				ctx.channel ().writeAndFlush (new PacketWrapper (wrapper.getIdentifier (), new AuthenticationResponsePacket ()));
+				this.writeResponse (ctx, command, PacketWrapper.newInstance (command.getIdentifier (), new ResponsePacket ("Error: The server is too busy to execute this command.")));
 
-				// skip further execution
-				return;
+				// continue with next command
+				this.finishCommand (ctx, command);
 			}
+		}
 
-			// log
-			getLogger ().debug ("Failed authentication attempt from client.");
-			getLogger ().trace ("Password was: \"" + packet.getPassword () + "\" (expecting: \"" + this.server.getPassword () + "\").");
+		// suspend reading while all slots are in use
+		boolean saturated = (this.shuttingDown || !this.pendingCommands.isEmpty () || this.inFlightCommands.size () >= this.server.getMaximumPipelinedCommands ());
+		if (ctx.channel ().config ().isAutoRead () == saturated) ctx.channel ().config ().setAutoRead (!saturated);
+	}
 
-			// notify client about messed up authentication
-			ctx.channel ().writeAndFlush (new PacketWrapper (-1, new AuthenticationResponsePacket ()));
+	/**
+	 * Marks a command as completed, writes all responses which are due and executes queued commands.
+	 * @param ctx The channel handler context.
+	 * @param command The command.
+	 */
+	protected void completeCommand (ChannelHandlerContext ctx, InFlightCommand command) {
+		this.finishCommand (ctx, command);
+
+		// execute next commands
+		this.executePendingCommands (ctx);
+
+		// close channel once drained
+		if (this.shuttingDown) this.closeIfIdle (ctx);
+	}
 
-			// close connection
-			ctx.channel ().disconnect ();
+	/**
+	 * Writes a response of an in-flight command or holds it back until all earlier commands have been completed.
+	 * @param ctx The channel handler context.
+	 * @param command The command.
+	 * @param response The response.
+	 */
+	protected void writeResponse (ChannelHandlerContext ctx, InFlightCommand command, Object response) {
+		if (this.server.isOrderedResponses () && command != this.inFlightCommands.peek ()) {
+			command.bufferResponse (response, ctx.newPromise ());
+			return;
 		}
 
-		// handle command
-		if (wrapper.getPacket () instanceof ExecutePacket) {
-			// cast packet
-			ExecutePacket packet = ((ExecutePacket) wrapper.getPacket ());
+		ctx.writeAndFlush (response);
+	}
 
-			// log
-			getLogger ().trace ("Received command \"" + packet.getCommand () + "\" from client " + ctx.channel ().remoteAddress ().toString () + ".");
+	/**
+	 * Marks a command as completed and writes all responses which are due.
+	 * @param ctx The channel handler context.
+	 * @param command The command.
+	 */
+	protected void finishCommand (ChannelHandlerContext ctx, InFlightCommand command) {
+		// update state
+		command.setCompleted (true);
 
-			// respond to empty commands
-			if (packet.getCommand ().isEmpty ()) {
-				// log
-				getLogger ().trace ("Responding to empty command packet.");
+		if (this.server.isOrderedResponses ()) {
+			// release responses in request order
+			boolean flush = false;
 
-				// respond
-				ctx.channel ().writeAndFlush (new PacketWrapper (wrapper.getIdentifier (), new ResponsePacket ("")));
+			while (!this.inFlightCommands.isEmpty () && this.inFlightCommands.peek ().isCompleted ()) {
+				this.inFlightCommands.poll ();
 
-				// skip further execution
+				InFlightCommand head = this.inFlightCommands.peek ();
+				if (head != null) flush |= head.writeResponses (ctx);
+			}
+
+			if (flush) ctx.flush ();
+		} else
+			this.inFlightCommands.remove (command);
+	}
+
+	/**
+	 * Closes the channel after flushing all outstanding writes if no commands are queued or executed.
+	 * @param ctx The channel handler context.
+	 */
+	protected void closeIfIdle (ChannelHandlerContext ctx) {
+		if (this.pendingCommands != null && (!this.pendingCommands.isEmpty () || !this.inFlightCommands.isEmpty ())) return;
+
+		// the empty buffer passes the entire pipeline (including streamed output) before the channel is closed
+		ctx.channel ().writeAndFlush (Unpooled.EMPTY_BUFFER).addListener (ChannelFutureListener.CLOSE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void userEventTriggered (ChannelHandlerContext ctx, Object evt) throws Exception {
+		if (evt instanceof ServerShutdownEvent) {
+			// skip repeated notifications
+			if (this.shuttingDown) return;
+
+			// stop reading and close once all commands have been completed
+			this.shuttingDown = true;
+			ctx.channel ().config ().setAutoRead (false);
+
+			this.closeIfIdle (ctx);
+			return;
+		}
+
+		super.userEventTriggered (ctx, evt);
+	}
+
+	/**
+	 * Searches an in-flight command by its identifier.
+	 * @param identifier The packet identifier.
+	 * @return The command or null.
+	 */
+	private InFlightCommand findInFlightCommand (int identifier) {
+		for (InFlightCommand command : this.inFlightCommands) {
+			if (command.getIdentifier () == identifier) return command;
+		}
+
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write (ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		// install the chunked writer with the first streamed output (chunks are only pulled while the channel is writable)
+		if (msg instanceof CommandOutputInput && ctx.pipeline ().get ("chunkedWriter") == null) ctx.pipeline ().addBefore (ctx.name (), "chunkedWriter", new ChunkedWriteHandler ());
+
+		// hold back responses to commands which are preceded by incomplete commands
+		if (this.server.isOrderedResponses () && this.inFlightCommands != null && this.inFlightCommands.size () > 1) {
+			// find identifier
+			int identifier;
+
+			if (msg instanceof PacketWrapper)
+				identifier = ((PacketWrapper) msg).getIdentifier ();
+			else if (msg instanceof CommandOutputInput)
+				identifier = ((CommandOutputInput) msg).getIdentifier ();
+			else {
+				super.write (ctx, msg, promise);
 				return;
 			}
 
-			// call command handler
-			if (!this.getServer ().getCommandRegistry ().handle (packet.getCommand (), wrapper.getIdentifier (), ctx.channel ())) {
-				// notify client
-				ctx.channel ().writeAndFlush (new PacketWrapper (wrapper.getIdentifier (), new ResponsePacket ("Error: No such command or configuration variable.")));
+			// buffer response
+			InFlightCommand command = this.findInFlightCommand (identifier);
 
-				// skip further execution
+			if (command != null && command != this.inFlightCommands.peek ()) {
+				command.bufferResponse (msg, promise);
 				return;
 			}
 		}
+
+		super.write (ctx, msg, promise);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void channelInactive (ChannelHandlerContext ctx) throws Exception {
+		// drop queued commands and responses
+		if (this.pendingCommands != null) {
+			this.pendingCommands.clear ();
+			for (InFlightCommand command : this.inFlightCommands) command.discardResponses ();
+		}
+
+		super.channelInactive (ctx);
 	}
 
 	/**
@@ -217,8 +422,8 @@ public class ServerChannelHandler extends ChannelHandlerAdapter {
 	 * @return True if the user is authenticated.
 	 */
 	public static boolean getAuthenticationState (@NonNull Channel channel) {
-		channel.attr (ATTRIBUTE_AUTHENTICATED).setIfAbsent (false);
-		return channel.attr (ATTRIBUTE_AUTHENTICATED).get ();
+		Boolean state = channel.attr (ATTRIBUTE_AUTHENTICATED).get ();
+		return (state != null && state);
 	}
 
 	/**
@@ -247,4 +452,152 @@ public class ServerChannelHandler extends ChannelHandlerAdapter {
 	public static void setAuthenticationState (@NonNull ChannelHandlerContext ctx, boolean state) {
 		setAuthenticationState (ctx.channel (), state);
 	}
+
+	/**
+	 * Represents a command (or a response which waits for earlier commands) which waits for execution.
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	private static class PendingCommand {
+
+		/**
+		 * Stores the packet identifier.
+		 */
+		private final int identifier;
+
+		/**
+		 * Stores the command (or null if a response is queued).
+		 */
+		private final String command;
+
+		/**
+		 * Stores the queued response (or null if a command is queued).
+		 */
+		private final IPacket response;
+	}
+
+	/**
+	 * Represents a command which is currently being executed.
+	 */
+	@RequiredArgsConstructor
+	protected static class InFlightCommand {
+
+		/**
+		 * Stores the packet identifier.
+		 */
+		@Getter
+		private final int identifier;
+
+		/**
+		 * Indicates whether the command has been completed.
+		 */
+		@Getter
+		@Setter
+		private boolean completed = false;
+
+		/**
+		 * Stores all held back responses (alternating messages and promises).
+		 */
+		private List<Object> responses = null;
+
+		/**
+		 * Holds back a response.
+		 * @param msg The message.
+		 * @param promise The promise.
+		 */
+		public void bufferResponse (Object msg, ChannelPromise promise) {
+			if (this.responses == null) this.responses = new ArrayList<Object> (2);
+
+			this.responses.add (msg);
+			this.responses.add (promise);
+		}
+
+		/**
+		 * Writes all held back responses.
+		 * @param ctx The channel handler context.
+		 * @return True if at least one response has been written.
+		 */
+		public boolean writeResponses (ChannelHandlerContext ctx) {
+			// skip empty buffers
+			if (this.responses == null) return false;
+
+			// write responses
+			for (int i = 0; i < this.responses.size (); i += 2) ctx.write (this.responses.get (i), ((ChannelPromise) this.responses.get ((i + 1))));
+			this.responses = null;
+
+			return true;
+		}
+
+		/**
+		 * Releases all held back responses.
+		 */
+		public void discardResponses () {
+			// skip empty buffers
+			if (this.responses == null) return;
+
+			// release responses
+			for (int i = 0; i < this.responses.size (); i += 2) {
+				ReferenceCountUtil.release (this.responses.get (i));
+				((ChannelPromise) this.responses.get ((i + 1))).tryFailure (new ClosedChannelException ());
+			}
+
+			this.responses = null;
+		}
+	}
+
+	/**
+	 * Executes a command and continues with the next command of the connection afterwards.
+	 */
+	@RequiredArgsConstructor
+	private class CommandTask implements Runnable {
+
+		/**
+		 * Stores the channel handler context.
+		 */
+		private final ChannelHandlerContext ctx;
+
+		/**
+		 * Stores the command state.
+		 */
+		private final InFlightCommand inFlightCommand;
+
+		/**
+		 * Stores the command.
+		 */
+		private final String command;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run () {
+			try {
+				// call command handler
+				int identifier = this.inFlightCommand.getIdentifier ();
+
+				if (!ServerChannelHandler.this.getServer ().getCommandRegistry ().handle (this.command, identifier, this.ctx.channel ())) {
+					// notify client
+					this.ctx.channel ().writeAndFlush (PacketWrapper.newInstance (identifier, new ResponsePacket ("Error: No such command or configuration variable.")));
+				}
+			} catch (Throwable ex) {
+				// notify pipeline
+				this.ctx.pipeline ().fireExceptionCaught (ex);
+			} finally {
+				// complete on the event loop (after the response has been written)
+				if (this.ctx.executor ().inEventLoop ())
+					ServerChannelHandler.this.completeCommand (this.ctx, this.inFlightCommand);
+				else
+					this.ctx.executor ().execute (new Runnable () {
+
+						/**
+						 * {@inheritDoc}
+						 */
+						@Override
+						public void run () {
+							ServerChannelHandler.this.completeCommand (CommandTask.this.ctx, CommandTask.this.inFlightCommand);
+						}
+					});
+			}
+		}
+	}
 }
@@ -15,11 +15,11 @@
 
 package org.evilco.network.rcon.server.protocol;
 
-import com.google.common.eventbus.EventBus;
 import io.netty.channel.ChannelHandler;
 import lombok.Getter;
 import lombok.NonNull;
 import org.evilco.network.rcon.common.codec.ICodecConfiguration;
+import org.evilco.network.rcon.common.event.dispatcher.IEventDispatcher;
 import org.evilco.network.rcon.common.protocol.RconChannelInitializer;
 import org.evilco.network.rcon.server.IRconServer;
 
@@ -36,16 +36,22 @@ public class ServerChannelInitializer extends RconChannelInitializer {
 	@NonNull
 	private final IRconServer server;
 
+	/**
+	 * Stores the authentication handler (which is shared between all channels).
+	 */
+	private final ServerAuthenticationHandler authenticationHandler;
+
 	/**
 	 * Constructs a new ServerChannelInitializer instance.
 	 * @param server The parent server.
 	 * @param codecConfiguration The codec configuration.
 	 * @param eventBus The event bus.
 	 */
-	public ServerChannelInitializer (@NonNull IRconServer server, ICodecConfiguration codecConfiguration, EventBus eventBus) {
+	public ServerChannelInitializer (@NonNull IRconServer server, ICodecConfiguration codecConfiguration, IEventDispatcher eventBus) {
 		super (codecConfiguration, eventBus);
 
 		this.server = server;
+		this.authenticationHandler = new ServerAuthenticationHandler (server);
 	}
 
 	/**
@@ -53,6 +59,6 @@ public class ServerChannelInitializer extends RconChannelInitializer {
 	 */
 	@Override
 	protected ChannelHandler getHandler () {
-		return (new ServerChannelHandler (this.getServer ()));
+		return this.authenticationHandler;
 	}
 }
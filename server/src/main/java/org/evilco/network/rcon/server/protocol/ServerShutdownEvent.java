@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.server.protocol;
+
+/**
+ * Notifies client channels about a graceful server shutdown.
+ * Channels stop reading further commands upon receiving this event and are closed as soon as all of their queued and
+ * in-flight commands have been completed and their responses have been flushed.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public final class ServerShutdownEvent {
+
+	/**
+	 * Stores the event instance.
+	 */
+	public static final ServerShutdownEvent INSTANCE = new ServerShutdownEvent ();
+
+	/**
+	 * Constructs a new ServerShutdownEvent instance.
+	 */
+	private ServerShutdownEvent () { }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.evilco.network.rcon.common.codec.ServerCodecConfiguration;
+import org.evilco.network.rcon.common.packet.AuthenticationPacket;
+import org.evilco.network.rcon.common.packet.ExecutePacket;
+import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.server.IRconServer;
+import org.evilco.network.rcon.server.LocalRconServer;
+import org.evilco.network.rcon.server.protocol.ServerChannelInitializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching a packet through the server handler of an authenticated connection.
+ * Packets are passed to the handler directly (without any codec) in order to isolate the handler's per-packet
+ * overhead. Empty commands are answered without invoking the command registry.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class AuthenticatedDispatchBenchmark {
+
+	/**
+	 * Defines the server password.
+	 */
+	private static final String PASSWORD = "benchmark";
+
+	/**
+	 * Stores the channel.
+	 */
+	private EmbeddedChannel channel;
+
+	/**
+	 * Prepares an authenticated channel.
+	 */
+	@Setup
+	public void setup () {
+		LocalRconServer server = new LocalRconServer (PASSWORD);
+
+		// construct channel
+		this.channel = new EmbeddedChannel ((new HandlerFactory (server)).createHandler ());
+
+		// authenticate
+		this.channel.writeInbound (PacketWrapper.newInstance (1, new AuthenticationPacket (PASSWORD)));
+		ReferenceCountUtil.release (this.channel.readOutbound ());
+	}
+
+	/**
+	 * Releases all resources.
+	 */
+	@TearDown
+	public void tearDown () {
+		this.channel.finish ();
+	}
+
+	/**
+	 * Dispatches an empty command and consumes its response.
+	 * @param blackhole The blackhole.
+	 */
+	@Benchmark
+	public void dispatch (Blackhole blackhole) {
+		this.channel.writeInbound (PacketWrapper.newInstance (2, new ExecutePacket ("")));
+
+		// consume response
+		Object response = this.channel.readOutbound ();
+		blackhole.consume (response);
+		ReferenceCountUtil.release (response);
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (AuthenticatedDispatchBenchmark.class.getSimpleName ()).build ())).run ();
+	}
+
+	/**
+	 * Exposes the server handler of the default channel initializer.
+	 */
+	private static class HandlerFactory extends ServerChannelInitializer {
+
+		/**
+		 * Constructs a new HandlerFactory instance.
+		 * @param server The server.
+		 */
+		public HandlerFactory (IRconServer server) {
+			super (server, ServerCodecConfiguration.DEFAULT, server.getEventBus ());
+		}
+
+		/**
+		 * Creates a new server handler.
+		 * @return The handler.
+		 */
+		public ChannelHandler createHandler () {
+			return this.getHandler ();
+		}
+	}
+}
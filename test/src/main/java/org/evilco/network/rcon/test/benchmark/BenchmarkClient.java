@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Provides a minimal blocking RCON client for benchmarks which run against a real server.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+final class BenchmarkClient {
+
+	/**
+	 * Defines the packet ID of authentication packets.
+	 */
+	public static final int AUTHENTICATION_PACKET_ID = 0x03;
+
+	/**
+	 * Defines the packet ID of execute packets.
+	 */
+	public static final int EXECUTE_PACKET_ID = 0x02;
+
+	/**
+	 * Private Constructor
+	 */
+	private BenchmarkClient () { }
+
+	/**
+	 * Finds a free local port.
+	 * @return The port.
+	 * @throws IOException Occurs if no port could be allocated.
+	 */
+	public static int findPort () throws IOException {
+		ServerSocket serverSocket = new ServerSocket (0);
+
+		try {
+			return serverSocket.getLocalPort ();
+		} finally {
+			serverSocket.close ();
+		}
+	}
+
+	/**
+	 * Connects and authenticates a client (retrying until the server is listening).
+	 * @param port The port.
+	 * @param password The password.
+	 * @return The socket.
+	 * @throws Exception Occurs if the connection fails.
+	 */
+	public static Socket connect (int port, String password) throws Exception {
+		for (int i = 0; ; i++) {
+			try {
+				return connectOnce (port, password);
+			} catch (IOException ex) {
+				if (i == 50) throw ex;
+				Thread.sleep (100);
+			}
+		}
+	}
+
+	/**
+	 * Connects and authenticates a client.
+	 * @param port The port.
+	 * @param password The password.
+	 * @return The socket.
+	 * @throws IOException Occurs if the connection fails.
+	 */
+	public static Socket connectOnce (int port, String password) throws IOException {
+		Socket socket = new Socket ("127.0.0.1", port);
+		socket.setTcpNoDelay (true);
+
+		// authenticate
+		socket.getOutputStream ().write (encode (0, AUTHENTICATION_PACKET_ID, password));
+		skip (new DataInputStream (socket.getInputStream ()));
+
+		return socket;
+	}
+
+	/**
+	 * Encodes a packet.
+	 * @param identifier The packet identifier.
+	 * @param packetID The packet ID.
+	 * @param body The body.
+	 * @return The encoded packet.
+	 */
+	public static byte[] encode (int identifier, int packetID, String body) {
+		byte[] data = body.getBytes ();
+
+		ByteBuffer buffer = ByteBuffer.allocate ((14 + data.length)).order (ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt ((10 + data.length));
+		buffer.putInt (identifier);
+		buffer.putInt (packetID);
+		buffer.put (data);
+		buffer.putShort ((short) 0x0000);
+
+		return buffer.array ();
+	}
+
+	/**
+	 * Sends a packet and reads the response.
+	 * @param outputStream The output stream.
+	 * @param inputStream The input stream.
+	 * @param packet The encoded packet.
+	 * @return The response length.
+	 * @throws IOException Occurs if the connection fails.
+	 */
+	public static int roundTrip (OutputStream outputStream, DataInputStream inputStream, byte[] packet) throws IOException {
+		outputStream.write (packet);
+		return skip (inputStream);
+	}
+
+	/**
+	 * Reads and discards a packet.
+	 * @param inputStream The input stream.
+	 * @return The packet length.
+	 * @throws IOException Occurs if the connection fails.
+	 */
+	public static int skip (DataInputStream inputStream) throws IOException {
+		int length = Integer.reverseBytes (inputStream.readInt ());
+		inputStream.readFully (new byte[length]);
+
+		return length;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.evilco.network.rcon.common.utility.BufferUtility;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link BufferUtility#readAscii(ByteBuf, int)} with {@link ByteBuf#toString(int, int, java.nio.charset.Charset)}
+ * on heap and direct buffers (socket reads arrive in pooled direct buffers).
+ * Run with the GC profiler (see {@link #main(String[])}) to compare the allocation rate per decoded string.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class BufferUtilityBenchmark {
+
+	/**
+	 * Indicates whether a direct buffer is used.
+	 */
+	@Param ({ "false", "true" })
+	public boolean direct;
+
+	/**
+	 * Defines the string length.
+	 */
+	@Param ({ "16", "1024", "4096" })
+	public int length;
+
+	/**
+	 * Stores the encoded string.
+	 */
+	private ByteBuf buffer;
+
+	/**
+	 * Prepares the encoded string.
+	 */
+	@Setup
+	public void setup () {
+		this.buffer = (this.direct ? PooledByteBufAllocator.DEFAULT.directBuffer (this.length) : PooledByteBufAllocator.DEFAULT.heapBuffer (this.length));
+
+		for (int i = 0; i < this.length; i++) {
+			this.buffer.writeByte (('a' + (i % 26)));
+		}
+	}
+
+	/**
+	 * Releases the encoded string.
+	 */
+	@TearDown
+	public void tearDown () {
+		this.buffer.release ();
+	}
+
+	/**
+	 * Decodes the string through the buffer utility.
+	 * @return The string.
+	 */
+	@Benchmark
+	public String readAscii () {
+		return BufferUtility.readAscii (this.buffer.duplicate (), this.length);
+	}
+
+	/**
+	 * Decodes the string through the US-ASCII charset.
+	 * @return The string.
+	 */
+	@Benchmark
+	public String charset () {
+		return this.buffer.toString (this.buffer.readerIndex (), this.length, Charsets.US_ASCII);
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (BufferUtilityBenchmark.class.getSimpleName ()).addProfiler (GCProfiler.class).build ())).run ();
+	}
+}
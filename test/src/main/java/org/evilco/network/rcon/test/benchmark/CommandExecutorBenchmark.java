@@ -0,0 +1,270 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.evilco.network.rcon.server.RemoteRconServer;
+import org.evilco.network.rcon.server.command.handler.ICommandHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of fast commands while slow (blocking) commands are executed on other connections.
+ * Run in sample mode to obtain latency percentiles.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.SampleTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class CommandExecutorBenchmark {
+
+	/**
+	 * Defines the server password.
+	 */
+	public static final String PASSWORD = "benchmark";
+
+	/**
+	 * Defines the duration of slow commands (in milliseconds).
+	 */
+	public static final int SLOW_COMMAND_DURATION = 20;
+
+	/**
+	 * Defines the command executor.
+	 */
+	@Param ({ "direct", "pool" })
+	public String executor;
+
+	/**
+	 * Defines the amount of connections which execute slow commands.
+	 */
+	@Param ({ "8" })
+	public int slowConnections;
+
+	/**
+	 * Stores the executor service (if any).
+	 */
+	private ExecutorService executorService;
+
+	/**
+	 * Stores the server thread.
+	 */
+	private Thread serverThread;
+
+	/**
+	 * Stores the slow clients.
+	 */
+	private List<Thread> slowClients;
+
+	/**
+	 * Indicates whether the benchmark is running.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * Stores the server port.
+	 */
+	private int port;
+
+	/**
+	 * Stores the fast connection.
+	 */
+	private Socket socket;
+
+	/**
+	 * Stores the fast connection's input stream.
+	 */
+	private DataInputStream inputStream;
+
+	/**
+	 * Stores the fast connection's output stream.
+	 */
+	private OutputStream outputStream;
+
+	/**
+	 * Stores the encoded fast command.
+	 */
+	private byte[] fastCommand;
+
+	/**
+	 * Starts the server and all slow clients.
+	 * @throws Exception Occurs if the server cannot be started.
+	 */
+	@Setup
+	public void setup () throws Exception {
+		// find port
+		this.port = BenchmarkClient.findPort ();
+
+		// construct server
+		final RemoteRconServer server = new RemoteRconServer (PASSWORD);
+
+		if ("pool".equals (this.executor)) {
+			this.executorService = Executors.newFixedThreadPool ((this.slowConnections + 4));
+			server.setCommandExecutor (this.executorService);
+		} else
+			server.setCommandExecutor (MoreExecutors.directExecutor ());
+
+		server.getCommandRegistry ().registerHandler ("fast", new ICommandHandler () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String getUsage () {
+				return "";
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String handle (String command, List<String> arguments) {
+				return "ok";
+			}
+		});
+
+		server.getCommandRegistry ().registerHandler ("slow", new ICommandHandler () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String getUsage () {
+				return "";
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String handle (String command, List<String> arguments) {
+				try {
+					Thread.sleep (SLOW_COMMAND_DURATION);
+				} catch (InterruptedException ignore) { }
+
+				return "ok";
+			}
+		});
+
+		// start server
+		this.serverThread = new Thread () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void run () {
+				try {
+					server.listen ("127.0.0.1", CommandExecutorBenchmark.this.port);
+				} catch (InterruptedException ignore) { }
+			}
+		};
+
+		this.serverThread.setDaemon (true);
+		this.serverThread.start ();
+
+		// connect fast client
+		this.socket = BenchmarkClient.connect (this.port, PASSWORD);
+		this.inputStream = new DataInputStream (this.socket.getInputStream ());
+		this.outputStream = this.socket.getOutputStream ();
+		this.fastCommand = BenchmarkClient.encode (1, BenchmarkClient.EXECUTE_PACKET_ID, "fast");
+
+		// start slow clients
+		this.running = true;
+		this.slowClients = new ArrayList<Thread> ();
+
+		for (int i = 0; i < this.slowConnections; i++) {
+			final Socket socket = BenchmarkClient.connect (this.port, PASSWORD);
+
+			Thread client = new Thread () {
+
+				/**
+				 * {@inheritDoc}
+				 */
+				@Override
+				public void run () {
+					try {
+						DataInputStream inputStream = new DataInputStream (socket.getInputStream ());
+						byte[] command = BenchmarkClient.encode (2, BenchmarkClient.EXECUTE_PACKET_ID, "slow");
+
+						while (CommandExecutorBenchmark.this.running) BenchmarkClient.roundTrip (socket.getOutputStream (), inputStream, command);
+					} catch (IOException ignore) {
+					} finally {
+						try {
+							socket.close ();
+						} catch (IOException ignore) { }
+					}
+				}
+			};
+
+			client.setDaemon (true);
+			client.start ();
+			this.slowClients.add (client);
+		}
+	}
+
+	/**
+	 * Stops all clients and the server.
+	 * @throws Exception Occurs if shutting down fails.
+	 */
+	@TearDown
+	public void tearDown () throws Exception {
+		// stop clients
+		this.running = false;
+		for (Thread client : this.slowClients) client.join ();
+		this.socket.close ();
+
+		// stop executor
+		if (this.executorService != null) this.executorService.shutdownNow ();
+
+		// stop server
+		this.serverThread.interrupt ();
+	}
+
+	/**
+	 * Executes a fast command.
+	 * @return The response length.
+	 * @throws IOException Occurs if the connection fails.
+	 */
+	@Benchmark
+	public int fastCommand () throws IOException {
+		return BenchmarkClient.roundTrip (this.outputStream, this.inputStream, this.fastCommand);
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (CommandExecutorBenchmark.class.getSimpleName ()).build ())).run ();
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.evilco.network.rcon.server.LocalRconServer;
+import org.evilco.network.rcon.server.RconServerConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by idle authenticated connections.
+ * Connections are established through the local transport and authenticated through the full server pipeline. The
+ * retained heap per connection is reported as the {@code bytesPerConnection} counter and includes the (minimal) client
+ * side of each local channel pair. Counters are summed across iterations, thus only a single iteration is measured. No
+ * warmup iteration is run since Netty recycles the outbound buffers of closed channels which would otherwise hide a
+ * varying share of the per-connection cost.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.SingleShotTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 0)
+@Measurement (iterations = 1)
+@Fork (value = 1, jvmArgsAppend = { "-Xms3g", "-Xmx3g", "-Dlog4j.configurationFile=log4j2-benchmark.xml" })
+public class ConnectionFootprintBenchmark {
+
+	/**
+	 * Defines the server password.
+	 */
+	private static final String PASSWORD = "benchmark";
+
+	/**
+	 * Defines the server address.
+	 */
+	private static final LocalAddress ADDRESS = new LocalAddress ("footprint");
+
+	/**
+	 * Stores the amount of connections.
+	 */
+	@Param ({ "10000", "100000" })
+	public int connections;
+
+	/**
+	 * Stores the server.
+	 */
+	private LocalRconServer server;
+
+	/**
+	 * Stores the client event loop group.
+	 */
+	private EventLoopGroup clientGroup;
+
+	/**
+	 * Stores the client bootstrap.
+	 */
+	private Bootstrap bootstrap;
+
+	/**
+	 * Stores the encoded authentication request.
+	 */
+	private byte[] authenticationRequest;
+
+	/**
+	 * Counts authenticated connections.
+	 */
+	private final Semaphore authenticatedConnections = new Semaphore (0);
+
+	/**
+	 * Stores all open client channels.
+	 */
+	private List<Channel> channels;
+
+	/**
+	 * Starts the server.
+	 * @throws InterruptedException Occurs if the thread is interrupted.
+	 */
+	@Setup
+	public void setup () throws InterruptedException {
+		// disable admission limits (all connections authenticate at once)
+		this.server = new LocalRconServer (PASSWORD, RconServerConfig.builder ().bossThreads (1).workerThreads (1).maximumPendingConnections (0).build ());
+		this.server.start (ADDRESS).sync ();
+
+		// prepare client
+		this.clientGroup = new DefaultEventLoopGroup (1);
+		this.bootstrap = (new Bootstrap ()).group (this.clientGroup).channel (LocalChannel.class).handler (new ResponseHandler ());
+
+		this.authenticationRequest = BenchmarkClient.encode (1, BenchmarkClient.AUTHENTICATION_PACKET_ID, PASSWORD);
+		this.channels = new ArrayList<Channel> (this.connections);
+	}
+
+	/**
+	 * Stops the server.
+	 * @throws InterruptedException Occurs if the thread is interrupted.
+	 */
+	@TearDown
+	public void shutdown () throws InterruptedException {
+		this.server.stop ().sync ();
+		this.clientGroup.shutdownGracefully ().sync ();
+	}
+
+	/**
+	 * Closes all connections.
+	 * @throws InterruptedException Occurs if the thread is interrupted.
+	 */
+	@TearDown (Level.Iteration)
+	public void tearDown () throws InterruptedException {
+		for (Channel channel : this.channels) channel.close ().sync ();
+		this.channels.clear ();
+	}
+
+	/**
+	 * Opens and authenticates all connections.
+	 * @param footprint The footprint counters.
+	 * @throws InterruptedException Occurs if the thread is interrupted.
+	 */
+	@Benchmark
+	public void idleAuthenticated (Footprint footprint) throws InterruptedException {
+		long heap = getUsedHeap ();
+
+		for (int i = 0; i < this.connections; i++) {
+			// bind explicitly (generated local addresses start to collide at this scale)
+			Channel channel = this.bootstrap.connect (ADDRESS, new LocalAddress ("client-" + i)).sync ().channel ();
+			channel.writeAndFlush (Unpooled.wrappedBuffer (this.authenticationRequest));
+
+			this.channels.add (channel);
+		}
+
+		// wait for all authentication responses
+		this.authenticatedConnections.acquire (this.connections);
+		footprint.bytesPerConnection = ((getUsedHeap () - heap) / this.connections);
+	}
+
+	/**
+	 * Returns the amount of used heap after a full collection.
+	 * @return The amount of bytes.
+	 */
+	private static long getUsedHeap () {
+		Runtime runtime = Runtime.getRuntime ();
+
+		for (int i = 0; i < 3; i++) System.gc ();
+		return (runtime.totalMemory () - runtime.freeMemory ());
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (ConnectionFootprintBenchmark.class.getSimpleName ()).build ())).run ();
+	}
+
+	/**
+	 * Reports the retained heap.
+	 */
+	@State (Scope.Thread)
+	@AuxCounters (AuxCounters.Type.EVENTS)
+	public static class Footprint {
+
+		/**
+		 * Stores the retained heap per connection (in bytes).
+		 */
+		public long bytesPerConnection;
+	}
+
+	/**
+	 * Counts and discards authentication responses.
+	 */
+	@ChannelHandler.Sharable
+	private class ResponseHandler extends ChannelHandlerAdapter {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void channelRead (ChannelHandlerContext ctx, Object msg) throws Exception {
+			ReferenceCountUtil.release (msg);
+			ConnectionFootprintBenchmark.this.authenticatedConnections.release ();
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import org.evilco.network.rcon.common.event.dispatcher.SimpleEventDispatcher;
+import org.evilco.network.rcon.common.event.packet.PacketSentEvent;
+import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.common.packet.ResponsePacket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares event delivery through Guava's {@link EventBus} and {@link SimpleEventDispatcher}.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class EventDispatcherBenchmark {
+
+	/**
+	 * Defines the amount of subscribers.
+	 */
+	@Param ({ "0", "1", "10" })
+	public int subscribers;
+
+	/**
+	 * Stores the Guava event bus.
+	 */
+	private EventBus eventBus;
+
+	/**
+	 * Stores the event dispatcher.
+	 */
+	private SimpleEventDispatcher dispatcher;
+
+	/**
+	 * Stores the posted event.
+	 */
+	private PacketSentEvent event;
+
+	/**
+	 * Stores the packet of constructed events.
+	 */
+	private PacketWrapper<ResponsePacket> packet;
+
+	/**
+	 * Prepares both dispatchers.
+	 */
+	@Setup
+	public void setup () {
+		this.eventBus = new EventBus ();
+		this.dispatcher = new SimpleEventDispatcher ();
+
+		for (int i = 0; i < this.subscribers; i++) {
+			this.eventBus.register (new Subscriber ());
+			this.dispatcher.register (new Subscriber ());
+		}
+
+		this.packet = new PacketWrapper<ResponsePacket> (1, new ResponsePacket (""));
+		this.event = new PacketSentEvent (this.packet);
+	}
+
+	/**
+	 * Posts an event through the Guava event bus.
+	 */
+	@Benchmark
+	public void eventBus () {
+		this.eventBus.post (this.event);
+	}
+
+	/**
+	 * Posts an event through the event dispatcher.
+	 */
+	@Benchmark
+	public void dispatcher () {
+		this.dispatcher.post (this.event);
+	}
+
+	/**
+	 * Constructs and posts an event only if listeners are registered (as done by the codec).
+	 */
+	@Benchmark
+	public void guardedDispatcher () {
+		if (this.dispatcher.hasListeners (PacketSentEvent.class)) this.dispatcher.post (new PacketSentEvent (this.packet));
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (EventDispatcherBenchmark.class.getSimpleName ()).build ())).run ();
+	}
+
+	/**
+	 * A subscriber which counts all received events.
+	 */
+	public static class Subscriber {
+
+		/**
+		 * Stores the amount of received events.
+		 */
+		public int count = 0;
+
+		/**
+		 * Handles a sent packet.
+		 * @param event The event.
+		 */
+		@Subscribe
+		public void onPacketSent (PacketSentEvent event) {
+			this.count++;
+		}
+	}
+}
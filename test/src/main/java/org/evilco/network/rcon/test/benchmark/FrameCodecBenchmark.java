@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.evilco.network.rcon.common.codec.FrameCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the copying and the zero-copy decode mode of {@link FrameCodec}.
+ * Run with the GC profiler (see {@link #main(String[])}) to compare the allocation rate per decoded read.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class FrameCodecBenchmark {
+
+	/**
+	 * Defines the amount of frames contained in a single read.
+	 */
+	public static final int FRAMES_PER_READ = 16;
+
+	/**
+	 * Indicates whether the zero-copy mode is used.
+	 */
+	@Param ({ "false", "true" })
+	public boolean zeroCopy;
+
+	/**
+	 * Defines the frame payload size.
+	 */
+	@Param ({ "16", "1024", "4096" })
+	public int frameSize;
+
+	/**
+	 * Stores the channel.
+	 */
+	private EmbeddedChannel channel;
+
+	/**
+	 * Stores the encoded input.
+	 */
+	private ByteBuf input;
+
+	/**
+	 * Prepares the channel and the encoded input.
+	 */
+	@Setup
+	public void setup () {
+		this.channel = new EmbeddedChannel (new FrameCodec (this.zeroCopy));
+		this.channel.config ().setAllocator (PooledByteBufAllocator.DEFAULT);
+
+		this.input = PooledByteBufAllocator.DEFAULT.directBuffer ((FRAMES_PER_READ * (4 + this.frameSize))).order (ByteOrder.LITTLE_ENDIAN);
+
+		for (int i = 0; i < FRAMES_PER_READ; i++) {
+			this.input.writeInt (this.frameSize);
+			this.input.writeZero (this.frameSize);
+		}
+	}
+
+	/**
+	 * Releases the encoded input.
+	 */
+	@TearDown
+	public void tearDown () {
+		this.channel.finish ();
+		this.input.release ();
+	}
+
+	/**
+	 * Decodes a single read worth of frames.
+	 * @param blackhole The blackhole.
+	 */
+	@Benchmark
+	public void decode (Blackhole blackhole) {
+		// pass a retained view of the input (released by the decoder)
+		this.channel.writeInbound (this.input.duplicate ().retain ());
+
+		// consume frames
+		ByteBuf frame;
+
+		while ((frame = this.channel.readInbound ()) != null) {
+			blackhole.consume (frame.getByte (0));
+			frame.release ();
+		}
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (FrameCodecBenchmark.class.getSimpleName ()).addProfiler (GCProfiler.class).build ())).run ();
+	}
+}
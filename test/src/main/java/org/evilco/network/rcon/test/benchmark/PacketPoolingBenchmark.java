@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.evilco.network.rcon.common.codec.FrameCodec;
+import org.evilco.network.rcon.common.codec.FramedRconCodec;
+import org.evilco.network.rcon.common.codec.RconCodec;
+import org.evilco.network.rcon.common.codec.ServerCodecConfiguration;
+import org.evilco.network.rcon.common.event.dispatcher.IEventListener;
+import org.evilco.network.rcon.common.event.dispatcher.SimpleEventDispatcher;
+import org.evilco.network.rcon.common.event.packet.PacketReceiveEvent;
+import org.evilco.network.rcon.common.event.packet.PacketSendEvent;
+import org.evilco.network.rcon.common.event.packet.PacketSentEvent;
+import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.evilco.network.rcon.common.packet.ResponsePacket;
+import org.evilco.network.rcon.common.utility.PoolingUtility;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a request/response round trip through the codec (with listeners for all packet events) with and without
+ * pooled packet wrappers and events.
+ * Both benchmarks are identical apart from the pooling property passed to their fork (run with the GC profiler to
+ * compare allocation rates).
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+public class PacketPoolingBenchmark {
+
+	/**
+	 * Stores the channel.
+	 */
+	private EmbeddedChannel channel;
+
+	/**
+	 * Stores the encoded request.
+	 */
+	private ByteBuf request;
+
+	/**
+	 * Prepares the channel and request.
+	 */
+	@Setup
+	public void setup () {
+		SimpleEventDispatcher dispatcher = new SimpleEventDispatcher ();
+
+		// register listeners
+		dispatcher.register (PacketReceiveEvent.class, new IEventListener<PacketReceiveEvent> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void handle (PacketReceiveEvent event) { }
+		});
+
+		dispatcher.register (PacketSendEvent.class, new IEventListener<PacketSendEvent> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void handle (PacketSendEvent event) { }
+		});
+
+		dispatcher.register (PacketSentEvent.class, new IEventListener<PacketSentEvent> () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void handle (PacketSentEvent event) { }
+		});
+
+		// construct channel
+		RconCodec codec = new RconCodec (ServerCodecConfiguration.DEFAULT, dispatcher);
+		this.channel = new EmbeddedChannel (new FramedRconCodec (codec, FrameCodec.DEFAULT_MAXIMUM_FRAME_SIZE), codec);
+		this.channel.config ().setAllocator (PooledByteBufAllocator.DEFAULT);
+
+		// encode request (execute packet)
+		byte[] command = "status".getBytes ();
+
+		this.request = PooledByteBufAllocator.DEFAULT.directBuffer ().order (ByteOrder.LITTLE_ENDIAN);
+		this.request.writeInt ((10 + command.length));
+		this.request.writeInt (1);
+		this.request.writeInt (0x02);
+		this.request.writeBytes (command);
+		this.request.writeShort (0x0000);
+	}
+
+	/**
+	 * Releases all resources.
+	 */
+	@TearDown
+	public void tearDown () {
+		this.channel.finish ();
+		this.request.release ();
+	}
+
+	/**
+	 * Runs a round trip without pooling.
+	 * @param blackhole The blackhole.
+	 */
+	@Benchmark
+	@Fork (value = 1, jvmArgsAppend = { "-Dlog4j.configurationFile=log4j2-benchmark.xml", "-D" + PoolingUtility.PROPERTY_NAME + "=false" })
+	public void unpooled (Blackhole blackhole) {
+		this.roundTrip (blackhole);
+	}
+
+	/**
+	 * Runs a round trip with pooling.
+	 * @param blackhole The blackhole.
+	 */
+	@Benchmark
+	@Fork (value = 1, jvmArgsAppend = { "-Dlog4j.configurationFile=log4j2-benchmark.xml", "-D" + PoolingUtility.PROPERTY_NAME + "=true" })
+	public void pooled (Blackhole blackhole) {
+		this.roundTrip (blackhole);
+	}
+
+	/**
+	 * Decodes the request and encodes a response.
+	 * @param blackhole The blackhole.
+	 */
+	private void roundTrip (Blackhole blackhole) {
+		// decode request
+		this.channel.writeInbound (this.request.duplicate ().retain ());
+		PacketWrapper wrapper = (PacketWrapper) this.channel.readInbound ();
+
+		// encode response
+		this.channel.writeOutbound (PacketWrapper.newInstance (wrapper.getIdentifier (), new ResponsePacket ("")));
+		wrapper.release ();
+
+		// consume response
+		ByteBuf response = (ByteBuf) this.channel.readOutbound ();
+		blackhole.consume (response.readableBytes ());
+		response.release ();
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (PacketPoolingBenchmark.class.getSimpleName ()).addProfiler (GCProfiler.class).build ())).run ();
+	}
+}
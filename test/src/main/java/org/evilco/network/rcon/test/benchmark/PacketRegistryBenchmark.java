@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import com.google.common.base.Charsets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import org.evilco.network.rcon.common.error.PacketException;
+import org.evilco.network.rcon.common.packet.ExecutePacket;
+import org.evilco.network.rcon.common.packet.IPacket;
+import org.evilco.network.rcon.common.packet.registry.IWritablePacketRegistry;
+import org.evilco.network.rcon.common.packet.registry.IndexedPacketRegistry;
+import org.evilco.network.rcon.common.packet.registry.SimplePacketRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares packet construction through {@link SimplePacketRegistry} (reflection) and {@link IndexedPacketRegistry} (factory table).
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class PacketRegistryBenchmark {
+
+	/**
+	 * Defines the registry implementation.
+	 */
+	@Param ({ "simple", "indexed" })
+	public String registryType;
+
+	/**
+	 * Stores the registry.
+	 */
+	private IWritablePacketRegistry registry;
+
+	/**
+	 * Stores the packet body.
+	 */
+	private ByteBuf buffer;
+
+	/**
+	 * Prepares the registry and the packet body.
+	 */
+	@Setup
+	public void setup () {
+		this.registry = ("indexed".equals (this.registryType) ? new IndexedPacketRegistry () : new SimplePacketRegistry ());
+		this.registry.registerPacket (0x02, ExecutePacket.class);
+
+		this.buffer = Unpooled.copiedBuffer ("status", Charsets.US_ASCII);
+	}
+
+	/**
+	 * Constructs a packet from its identifier.
+	 * @return The packet.
+	 * @throws PacketException Occurs if the packet could not be constructed.
+	 */
+	@Benchmark
+	public IPacket createPacketInstance () throws PacketException {
+		this.buffer.readerIndex (0);
+
+		// release the retained body
+		IPacket packet = this.registry.createPacketInstance (0x02, this.buffer);
+		ReferenceCountUtil.release (packet);
+		return packet;
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (PacketRegistryBenchmark.class.getSimpleName ()).build ())).run ();
+	}
+}
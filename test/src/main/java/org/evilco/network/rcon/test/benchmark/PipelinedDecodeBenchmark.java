@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.evilco.network.rcon.test.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.evilco.network.rcon.common.codec.FrameCodec;
+import org.evilco.network.rcon.common.codec.FramedRconCodec;
+import org.evilco.network.rcon.common.codec.RconCodec;
+import org.evilco.network.rcon.common.codec.ServerCodecConfiguration;
+import org.evilco.network.rcon.common.event.dispatcher.SimpleEventDispatcher;
+import org.evilco.network.rcon.common.packet.ExecutePacket;
+import org.evilco.network.rcon.common.packet.PacketWrapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes several pipelined commands per read with the fused and the separate decoder stages.
+ * Decoded packets are held across a second read (as commands which are queued for execution would be) and their bodies
+ * are verified afterwards. The second read completes a frame which is split across both reads and thus forces the
+ * cumulation to be compacted or reallocated while the packets of the first read are still alive. The benchmark fails
+ * if any body has been corrupted.
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 5, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class PipelinedDecodeBenchmark {
+
+	/**
+	 * Indicates whether the fused decoder is used.
+	 */
+	@Param ({ "false", "true" })
+	public boolean fused;
+
+	/**
+	 * Defines the amount of commands per read.
+	 */
+	@Param ({ "4", "16" })
+	public int commandsPerRead;
+
+	/**
+	 * Stores the channel.
+	 */
+	private EmbeddedChannel channel;
+
+	/**
+	 * Stores the first read (all commands of the first batch followed by the head of a split command).
+	 */
+	private byte[] firstRead;
+
+	/**
+	 * Stores the second read (the tail of the split command followed by all commands of the second batch).
+	 */
+	private byte[] secondRead;
+
+	/**
+	 * Stores all expected commands (in request order).
+	 */
+	private String[] commands;
+
+	/**
+	 * Stores all decoded packets which are held until verification.
+	 */
+	private final List<PacketWrapper> packets = new ArrayList<PacketWrapper> ();
+
+	/**
+	 * Prepares the channel and the encoded reads.
+	 */
+	@Setup
+	public void setup () {
+		RconCodec codec = new RconCodec (ServerCodecConfiguration.DEFAULT, (new SimpleEventDispatcher ()));
+
+		if (this.fused)
+			this.channel = new EmbeddedChannel (new FramedRconCodec (codec, FrameCodec.DEFAULT_MAXIMUM_FRAME_SIZE));
+		else
+			this.channel = new EmbeddedChannel (new FrameCodec (true), codec);
+
+		// use pooled buffers (pooled cumulations only keep their readable bytes when they are reallocated)
+		this.channel.config ().setAllocator (PooledByteBufAllocator.DEFAULT);
+
+		// encode commands
+		this.commands = new String[((this.commandsPerRead * 2) + 1)];
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream ();
+
+		for (int i = 0; i < this.commands.length; i++) {
+			this.commands[i] = "say pipelined command " + i;
+
+			byte[] packet = BenchmarkClient.encode (i, BenchmarkClient.EXECUTE_PACKET_ID, this.commands[i]);
+			outputStream.write (packet, 0, packet.length);
+		}
+
+		// split the command in the middle across both reads
+		byte[] data = outputStream.toByteArray ();
+		int split = (((data.length / this.commands.length) * this.commandsPerRead) + 7);
+
+		this.firstRead = new byte[split];
+		this.secondRead = new byte[(data.length - split)];
+
+		System.arraycopy (data, 0, this.firstRead, 0, split);
+		System.arraycopy (data, split, this.secondRead, 0, this.secondRead.length);
+	}
+
+	/**
+	 * Shuts down the channel.
+	 */
+	@TearDown
+	public void tearDown () {
+		this.channel.finish ();
+	}
+
+	/**
+	 * Decodes both reads and verifies all commands.
+	 * @param blackhole The blackhole.
+	 */
+	@Benchmark
+	public void decode (Blackhole blackhole) {
+		// decode both reads (packets of the first read stay alive while the second read is decoded)
+		this.read (this.firstRead);
+		this.read (this.secondRead);
+
+		// verify commands
+		if (this.packets.size () != this.commands.length) throw new IllegalStateException ("Expected " + this.commands.length + " packets but decoded " + this.packets.size () + ".");
+
+		for (int i = 0; i < this.commands.length; i++) {
+			PacketWrapper wrapper = this.packets.get (i);
+			String command = ((ExecutePacket) wrapper.getPacket ()).getCommand ();
+
+			if (!this.commands[i].equals (command)) throw new IllegalStateException ("Corrupted command " + i + ": \"" + command + "\"");
+			blackhole.consume (command);
+
+			ReferenceCountUtil.release (wrapper);
+		}
+
+		this.packets.clear ();
+	}
+
+	/**
+	 * Passes a single read through the channel and holds all decoded packets.
+	 * @param data The read.
+	 */
+	private void read (byte[] data) {
+		ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer (data.length);
+		buffer.writeBytes (data);
+
+		this.channel.writeInbound (buffer);
+
+		Object packet;
+		while ((packet = this.channel.readInbound ()) != null) this.packets.add (((PacketWrapper) packet));
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (PipelinedDecodeBenchmark.class.getSimpleName ()).addProfiler (GCProfiler.class).build ())).run ();
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.network.rcon.test.benchmark;
+
+import com.google.common.base.Preconditions;
+import org.evilco.network.rcon.server.NativeRconServer;
+import org.evilco.network.rcon.server.RconServerConfig;
+import org.evilco.network.rcon.server.RemoteRconServer;
+import org.evilco.network.rcon.server.command.handler.ICommandHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the connection rate and round trip latency of the NIO and native transports on the loopback interface.
+ * The native transport requires the netty-transport-native-epoll artifact on the class path (its benchmarks fail
+ * otherwise instead of silently measuring the NIO fallback).
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+@State (Scope.Benchmark)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-benchmark.xml")
+public class TransportBenchmark {
+
+	/**
+	 * Defines the server password.
+	 */
+	public static final String PASSWORD = "benchmark";
+
+	/**
+	 * Defines the transport.
+	 */
+	@Param ({ "nio", "native" })
+	public String transport;
+
+	/**
+	 * Stores the server thread.
+	 */
+	private Thread serverThread;
+
+	/**
+	 * Stores the server port.
+	 */
+	private int port;
+
+	/**
+	 * Starts the server.
+	 * @throws Exception Occurs if the server cannot be started.
+	 */
+	@Setup
+	public void setup () throws Exception {
+		this.port = BenchmarkClient.findPort ();
+
+		// construct server
+		RconServerConfig configuration = RconServerConfig.builder ().tcpNoDelay (true).build ();
+		final RemoteRconServer server;
+
+		if ("native".equals (this.transport)) {
+			Preconditions.checkState (NativeRconServer.isAvailable (), "The native transport is not available.");
+
+			NativeRconServer nativeServer = new NativeRconServer (PASSWORD, configuration);
+			nativeServer.setAcceptors (Runtime.getRuntime ().availableProcessors ());
+			nativeServer.setTcpQuickAck (true);
+			server = nativeServer;
+		} else
+			server = new RemoteRconServer (PASSWORD, configuration);
+
+		server.getCommandRegistry ().registerHandler ("echo", new ICommandHandler () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String getUsage () {
+				return "";
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String handle (String command, List<String> arguments) {
+				return "echo";
+			}
+		});
+
+		// start server
+		this.serverThread = new Thread () {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void run () {
+				try {
+					server.listen ("127.0.0.1", TransportBenchmark.this.port);
+				} catch (InterruptedException ignore) { }
+			}
+		};
+
+		this.serverThread.setDaemon (true);
+		this.serverThread.start ();
+
+		// wait for server
+		BenchmarkClient.connect (this.port, PASSWORD).close ();
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@TearDown
+	public void tearDown () {
+		this.serverThread.interrupt ();
+	}
+
+	/**
+	 * Connects, authenticates and disconnects a client.
+	 * @throws IOException Occurs if the connection fails.
+	 */
+	@Benchmark
+	@BenchmarkMode (Mode.Throughput)
+	@OutputTimeUnit (TimeUnit.MILLISECONDS)
+	public void connect () throws IOException {
+		BenchmarkClient.connectOnce (this.port, PASSWORD).close ();
+	}
+
+	/**
+	 * Executes a command on an established connection.
+	 * @param connection The connection.
+	 * @return The response length.
+	 * @throws IOException Occurs if the connection fails.
+	 */
+	@Benchmark
+	@BenchmarkMode (Mode.SampleTime)
+	@OutputTimeUnit (TimeUnit.MICROSECONDS)
+	public int roundTrip (Connection connection) throws IOException {
+		return BenchmarkClient.roundTrip (connection.outputStream, connection.inputStream, connection.command);
+	}
+
+	/**
+	 * Main Entry Point
+	 * @param arguments The command line arguments.
+	 * @throws RunnerException Occurs if the benchmark fails.
+	 */
+	public static void main (String[] arguments) throws RunnerException {
+		(new Runner ((new OptionsBuilder ()).include (TransportBenchmark.class.getSimpleName ()).build ())).run ();
+	}
+
+	/**
+	 * Represents an established connection of a benchmark thread.
+	 */
+	@State (Scope.Thread)
+	public static class Connection {
+
+		/**
+		 * Stores the socket.
+		 */
+		private Socket socket;
+
+		/**
+		 * Stores the input stream.
+		 */
+		private DataInputStream inputStream;
+
+		/**
+		 * Stores the output stream.
+		 */
+		private OutputStream outputStream;
+
+		/**
+		 * Stores the encoded command.
+		 */
+		private byte[] command;
+
+		/**
+		 * Connects to the server.
+		 * @param benchmark The benchmark.
+		 * @throws Exception Occurs if the connection fails.
+		 */
+		@Setup
+		public void setup (TransportBenchmark benchmark) throws Exception {
+			this.socket = BenchmarkClient.connect (benchmark.port, PASSWORD);
+			this.inputStream = new DataInputStream (this.socket.getInputStream ());
+			this.outputStream = this.socket.getOutputStream ();
+			this.command = BenchmarkClient.encode (1, BenchmarkClient.EXECUTE_PACKET_ID, "echo");
+		}
+
+		/**
+		 * Closes the connection.
+		 * @throws IOException Occurs if closing the connection fails.
+		 */
+		@TearDown
+		public void tearDown () throws IOException {
+			this.socket.close ();
+		}
+	}
+}